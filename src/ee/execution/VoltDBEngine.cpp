@@ -117,7 +117,6 @@ ENABLE_BOOST_FOREACH_ON_CONST_MAP(MaterializedViewInfo);
 ENABLE_BOOST_FOREACH_ON_CONST_MAP(Table);
 ENABLE_BOOST_FOREACH_ON_CONST_MAP(Function);
 
-static const size_t PLAN_CACHE_SIZE = 1000;
 // table name prefix of DR conflict table
 const std::string DR_REPLICATED_CONFLICT_TABLE_NAME = "VOLTDB_AUTOGEN_XDCR_CONFLICTS_REPLICATED";
 const std::string DR_PARTITIONED_CONFLICT_TABLE_NAME = "VOLTDB_AUTOGEN_XDCR_CONFLICTS_PARTITIONED";
@@ -193,7 +192,8 @@ VoltDBEngine::initialize(int32_t clusterIndex,
                          int64_t tempTableMemoryLimit,
                          bool isLowestSiteId,
                          int32_t compactionThreshold,
-                         int32_t exportFlushTimeout)
+                         int32_t exportFlushTimeout,
+                         int32_t planCacheSize)
 {
     m_clusterIndex = clusterIndex;
     m_siteId = siteId;
@@ -201,6 +201,8 @@ VoltDBEngine::initialize(int32_t clusterIndex,
     m_partitionId = partitionId;
     m_tempTableMemoryLimit = tempTableMemoryLimit;
     m_compactionThreshold = compactionThreshold;
+    assert(planCacheSize > 0);
+    m_planCacheSize = planCacheSize;
     assert(exportFlushTimeout > 0);
     s_exportFlushTimeout = exportFlushTimeout;
 
@@ -1994,7 +1996,7 @@ void VoltDBEngine::setExecutorVectorForFragmentId(int64_t fragId) {
     plans.get<0>().push_back(ev_guard);
 
     // remove a plan from the front if the cache is full
-    if (plans.size() > PLAN_CACHE_SIZE) {
+    if (plans.size() > m_planCacheSize) {
         PlanSet::iterator iter = plans.get<0>().begin();
         plans.erase(iter);
     }
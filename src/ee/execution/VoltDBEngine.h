@@ -146,7 +146,8 @@ class __attribute__((visibility("default"))) VoltDBEngine {
                         int64_t tempTableMemoryLimit,
                         bool createDrReplicatedStream,
                         int32_t compactionThreshold = 95,
-                        int32_t exportFlushTimeout = 4*1000);
+                        int32_t exportFlushTimeout = 4*1000,
+                        int32_t planCacheSize = 1000);
         virtual ~VoltDBEngine();
 
         // ------------------------------------------------------------------
@@ -811,6 +812,9 @@ class __attribute__((visibility("default"))) VoltDBEngine {
 
         int32_t m_compactionThreshold;
 
+        // Number of deserialized plans kept in m_plans
+        size_t m_planCacheSize;
+
         /*
          * DR conflict streamed tables
          */
@@ -282,7 +282,8 @@ SHAREDLIB_JNIEXPORT jint JNICALL Java_org_voltdb_jni_ExecutionEngine_nativeIniti
     jlong tempTableMemory,
     jboolean createDrReplicatedStream,
     jint compactionThreshold,
-    jint exportFlushTimeout)
+    jint exportFlushTimeout,
+    jint planCacheSize)
 {
     VOLT_DEBUG("nativeInitialize() start");
     VoltDBEngine *engine = castToEngine(enginePtr);
@@ -311,7 +312,8 @@ SHAREDLIB_JNIEXPORT jint JNICALL Java_org_voltdb_jni_ExecutionEngine_nativeIniti
                            tempTableMemory,
                            createDrReplicatedStream,
                            static_cast<int32_t>(compactionThreshold),
-                           exportFlushTimeout);
+                           exportFlushTimeout,
+                           planCacheSize);
         VOLT_DEBUG("initialize succeeded");
         return org_voltdb_jni_ExecutionEngine_ERRORCODE_SUCCESS;
     }
@@ -22,6 +22,7 @@ import org.voltdb.importer.AbstractImporter;
 import org.voltdb.importer.ImporterServerAdapter;
 import org.voltdb.importer.ImporterStatsCollector;
 
+import java.util.Set;
 import java.util.function.Function;
 
 /**
@@ -66,4 +67,14 @@ public class ImporterServerAdapterImpl implements ImporterServerAdapter {
     public void reportInitialized(String importerName, String procName) {
         m_statsCollector.reportInitialized(importerName, procName);
     }
+
+    @Override
+    public Set<Integer> getLocalLeaderPartitions() {
+        return VoltDB.instance().getCartographer().getLocalLeaderPartitions();
+    }
+
+    @Override
+    public int getPartitionCount() {
+        return VoltDB.instance().getCartographer().getPartitionCount();
+    }
 }
@@ -20,19 +20,25 @@ package org.voltdb;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayDeque;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.AbstractExecutorService;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+import org.voltcore.logging.VoltLogger;
 import org.voltcore.messaging.Mailbox;
 import org.voltcore.network.Connection;
 import org.voltcore.utils.CoreUtils;
@@ -114,18 +120,33 @@ public class NTProcedureService {
 
     public static final String NTPROCEDURE_RUN_EVERYWHERE_TIMEOUT = "NTPROCEDURE_RUN_EVERYWHERE_TIMEOUT";
 
+    private static final VoltLogger hostLog = new VoltLogger("HOST");
+
+    // When set, every nt proc and follow-up task runs on its own virtual thread, so that
+    // procs waiting on nested calls don't hold platform threads. Falls back to the thread
+    // pools below on JVMs without virtual threads.
+    static final boolean USE_VIRTUAL_THREADS =
+            Boolean.valueOf(System.getProperty("NTPROCEDURE_VIRTUAL_THREADS", "false"));
+
+    static final int PRIMARY_MAX_THREADS = 20;
+    static final int PRIMARY_QUEUE_SIZE = 10000;
+
     // runs the initial run() method of nt procs
     // (doesn't run nt procs if started by other nt procs)
     // from 2 to 20 threads in parallel, with a bounded queue
-    private final ExecutorService m_primaryExecutorService = new ThreadPoolExecutor(
-            2,
-            20,
-            60,
-            TimeUnit.SECONDS,
-            new ArrayBlockingQueue<Runnable>(10000),
-            new ThreadFactoryBuilder()
-                .setNameFormat(NTPROC_THREADPOOL_NAMEPREFIX + "%d")
-                .build());
+    // on virtual threads, at most as many procs as the pool runs and queues
+    private final ExecutorService m_primaryExecutorService = newExecutorService(
+            NTPROC_THREADPOOL_NAMEPREFIX,
+            PRIMARY_MAX_THREADS + PRIMARY_QUEUE_SIZE,
+            () -> new ThreadPoolExecutor(
+                    2,
+                    PRIMARY_MAX_THREADS,
+                    60,
+                    TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<Runnable>(PRIMARY_QUEUE_SIZE),
+                    new ThreadFactoryBuilder()
+                        .setNameFormat(NTPROC_THREADPOOL_NAMEPREFIX + "%d")
+                        .build()));
 
     // runs any follow-up work from nt procs' run() method,
     // including other nt procs, or other callbacks.
@@ -134,10 +155,103 @@ public class NTProcedureService {
     // nt procs running in the first queue.
     // No unbounded queue here -- direct handoff of work to thread
     // note: threads are cached by default
-    private final ExecutorService m_priorityExecutorService = Executors.newCachedThreadPool(
-            new ThreadFactoryBuilder()
-                .setNameFormat(NTPROC_THREADPOOL_NAMEPREFIX + NTPROC_THREADPOOL_PRIORITY_SUFFIX + "%d")
-                .build());
+    private final ExecutorService m_priorityExecutorService = newExecutorService(
+            NTPROC_THREADPOOL_NAMEPREFIX + NTPROC_THREADPOOL_PRIORITY_SUFFIX,
+            Integer.MAX_VALUE,
+            () -> Executors.newCachedThreadPool(
+                    new ThreadFactoryBuilder()
+                        .setNameFormat(NTPROC_THREADPOOL_NAMEPREFIX + NTPROC_THREADPOOL_PRIORITY_SUFFIX + "%d")
+                        .build()));
+
+    private static ExecutorService newExecutorService(String namePrefix, int maxTasks,
+            Supplier<ExecutorService> pool) {
+        if (USE_VIRTUAL_THREADS) {
+            ExecutorService executor = newVirtualThreadExecutor(namePrefix);
+            if (executor != null) {
+                return maxTasks == Integer.MAX_VALUE ? executor : new BoundedExecutorService(executor, maxTasks);
+            }
+            hostLog.warn("Virtual threads are not supported by this JVM, running NT procedures on a thread pool.");
+        }
+        return pool.get();
+    }
+
+    /**
+     * Create an executor starting a named virtual thread per task. Looked up reflectively
+     * as virtual threads only exist from Java 21.
+     * @return the executor, or null if the JVM has no virtual threads
+     */
+    static ExecutorService newVirtualThreadExecutor(String namePrefix) {
+        try {
+            Class<?> builderClz = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClz.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderClz.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Executor rejecting tasks once a given number of them are queued or running, as
+     * a thread pool with a bounded queue does, so that callers still see backpressure.
+     */
+    static class BoundedExecutorService extends AbstractExecutorService {
+        private final ExecutorService m_executor;
+        private final Semaphore m_permits;
+
+        BoundedExecutorService(ExecutorService executor, int maxTasks) {
+            m_executor = executor;
+            m_permits = new Semaphore(maxTasks);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (!m_permits.tryAcquire()) {
+                throw new RejectedExecutionException("More than the maximum number of tasks are pending");
+            }
+            try {
+                m_executor.execute(() -> {
+                    try {
+                        command.run();
+                    }
+                    finally {
+                        m_permits.release();
+                    }
+                });
+            }
+            catch (RejectedExecutionException e) {
+                m_permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            m_executor.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return m_executor.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return m_executor.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return m_executor.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return m_executor.awaitTermination(timeout, unit);
+        }
+    }
 
     /**
      * All of the slow load-time stuff for each procedure is cached here.
@@ -393,6 +393,114 @@ public class ParameterSet implements JSONString {
         return opi.value;
     }
 
+    /**
+     * Check, without deserializing them, that serialized parameters have exactly the given
+     * statement parameter types. Such parameters are byte for byte what flattenToBuffer()
+     * writes after converting them for the statement, so they can be handed to the EE as they are.
+     * Arrays, typeless nulls and types whose values get validated or rewritten don't qualify,
+     * nor do strings which aren't well-formed UTF-8, as decoding them would replace the bad bytes.
+     */
+    public static boolean hasExactTypes(ByteBuffer serialized, byte[] types) {
+        int pos = serialized.position();
+        final int limit = serialized.limit();
+        if (limit - pos < 2 || serialized.getShort(pos) != types.length) {
+            return false;
+        }
+        pos += 2;
+        for (byte type : types) {
+            if (pos >= limit || serialized.get(pos) != type) {
+                return false;
+            }
+            pos++;
+            switch (VoltType.get(type)) {
+            case TINYINT:
+                pos += 1;
+                break;
+            case SMALLINT:
+                pos += 2;
+                break;
+            case INTEGER:
+                pos += 4;
+                break;
+            case BIGINT:
+            case FLOAT:
+            case TIMESTAMP:
+                pos += 8;
+                break;
+            case STRING:
+            case VARBINARY:
+                if (limit - pos < 4) {
+                    return false;
+                }
+                final int len = serialized.getInt(pos);
+                pos += 4;
+                if (len >= 0) {
+                    if (len > limit - pos ||
+                            (type == VoltType.STRING.getValue() && !isWellFormedUTF8(serialized, pos, pos + len))) {
+                        return false;
+                    }
+                    pos += len;
+                } else if (len != VoltType.NULL_STRING_LENGTH || type != VoltType.STRING.getValue()) {
+                    // null varbinary is sent to the EE as a null string
+                    return false;
+                }
+                break;
+            default:
+                return false;
+            }
+        }
+        return pos == limit;
+    }
+
+    /**
+     * Check bytes of a buffer for well-formed UTF-8 (Unicode table 3-7), which is what the
+     * JDK decoder accepts without replacing anything: no overlong forms, no surrogates and
+     * nothing past U+10FFFF.
+     */
+    static boolean isWellFormedUTF8(ByteBuffer buf, int pos, int end) {
+        while (pos < end) {
+            final int b = buf.get(pos++);
+            if (b >= 0) {
+                continue;
+            }
+            int trailing;
+            int lower = 0x80;
+            int upper = 0xBF;
+            if (b >= (byte) 0xC2 && b <= (byte) 0xDF) {
+                trailing = 1;
+            } else if (b >= (byte) 0xE0 && b <= (byte) 0xEF) {
+                trailing = 2;
+                if (b == (byte) 0xE0) {
+                    lower = 0xA0;
+                } else if (b == (byte) 0xED) {
+                    upper = 0x9F;
+                }
+            } else if (b >= (byte) 0xF0 && b <= (byte) 0xF4) {
+                trailing = 3;
+                if (b == (byte) 0xF0) {
+                    lower = 0x90;
+                } else if (b == (byte) 0xF4) {
+                    upper = 0x8F;
+                }
+            } else {
+                return false;
+            }
+            if (end - pos < trailing) {
+                return false;
+            }
+            // only the first continuation byte has a narrower range
+            for (int i = 0; i < trailing; i++) {
+                final int c = buf.get(pos++) & 0xFF;
+                if (c < lower || c > upper) {
+                    return false;
+                }
+                lower = 0x80;
+                upper = 0xBF;
+            }
+        }
+        return true;
+    }
+
     static Object getAKosherArray(Object[] array) {
         int tables = 0;
         int integers = 0;
@@ -0,0 +1,340 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2019 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.voltdb;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.voltdb.VoltTable.ColumnInfo;
+import org.voltdb.catalog.Database;
+import org.voltdb.catalog.Procedure;
+import org.voltdb.catalog.Statement;
+import org.voltdb.catalog.Table;
+import org.voltdb.client.ClientResponse;
+
+/**
+ * Per site cache of the responses of deterministic read-only single partition procedures.
+ *
+ * Procedures opt in by being named in the comma separated PROCEDURE_RESULT_CACHE property;
+ * they must not depend on anything but their parameters and the tables they read. A response
+ * is cached under the procedure name and the serialized parameters, along with the write
+ * generation of every table the procedure's statements read. The site bumps the generation
+ * of each table updated by a write fragment it executes, committed or not, so an entry goes
+ * stale as soon as one of its tables is written. Writes whose tables are unknown, such as ad
+ * hoc DML, loads of DR binary logs, schema changes or rebalancing, drop every entry. Views
+ * are maintained by the EE as a side effect of writes to their sources, so a procedure
+ * reading a view depends on every write to the site.
+ *
+ * Entries are evicted in LRU order once they take more than PROCEDURE_RESULT_CACHE_MB.
+ * The cache is only used by the site thread, the stats agent reads the counters racily.
+ */
+public class ProcedureResultCache extends SiteStatsSource {
+
+    private static final Set<String> s_cachedProcedures =
+            parseProcedureNames(System.getProperty("PROCEDURE_RESULT_CACHE", ""));
+    private static final long MAX_BYTES = Long.getLong("PROCEDURE_RESULT_CACHE_MB", 64) * 1024 * 1024;
+
+    // Generation bumped by every tracked write, read by procedures that read views
+    static final String ANY_TABLE = "*";
+
+    // Rough per entry overhead of the key, entry and map node
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private static final class Key {
+        final String m_procedureName;
+        final ByteBuffer m_params;
+        final int m_hash;
+
+        Key(String procedureName, ByteBuffer params) {
+            m_procedureName = procedureName;
+            m_params = params;
+            m_hash = 31 * procedureName.hashCode() + params.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return m_hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return m_hash == other.m_hash &&
+                    m_procedureName.equals(other.m_procedureName) &&
+                    m_params.equals(other.m_params);
+        }
+    }
+
+    private static final class Entry {
+        final String[] m_tables;
+        final long[] m_generations;
+        final byte m_appStatus;
+        final String m_appStatusString;
+        final ByteBuffer[] m_results;
+        final int[] m_hashes;
+        final long m_size;
+
+        Entry(String[] tables, long[] generations, ClientResponseImpl response, long keySize) {
+            m_tables = tables;
+            m_generations = generations;
+            m_appStatus = response.getAppStatus();
+            m_appStatusString = response.getAppStatusString();
+            m_hashes = response.getHashes();
+            VoltTable[] results = response.getResults();
+            m_results = new ByteBuffer[results.length];
+            long size = ENTRY_OVERHEAD + keySize;
+            for (int i = 0; i < results.length; i++) {
+                // The result may be backed by the EE's shared buffer, keep a private copy
+                ByteBuffer data = results[i].getBuffer();
+                ByteBuffer copy = ByteBuffer.allocate(data.remaining());
+                copy.put(data);
+                copy.flip();
+                m_results[i] = copy;
+                size += copy.capacity();
+            }
+            m_size = size;
+        }
+
+        ClientResponseImpl toResponse() {
+            VoltTable[] results = new VoltTable[m_results.length];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = PrivateVoltTableFactory.createVoltTableFromBuffer(m_results[i].duplicate(), true);
+            }
+            ClientResponseImpl response = new ClientResponseImpl(
+                    ClientResponse.SUCCESS, m_appStatus, m_appStatusString, results, null);
+            response.setHashes(m_hashes);
+            return response;
+        }
+    }
+
+    private final int m_partitionId;
+    private final long m_maxBytes;
+    private final LinkedHashMap<Key, Entry> m_entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, long[]> m_tableGenerations = new HashMap<>();
+    private long m_bytes = 0;
+
+    private long m_hits = 0;
+    private long m_misses = 0;
+    private long m_invalidations = 0;
+    private long m_evictions = 0;
+
+    public ProcedureResultCache(long siteId, int partitionId) {
+        this(siteId, partitionId, MAX_BYTES);
+    }
+
+    ProcedureResultCache(long siteId, int partitionId, long maxBytes) {
+        super(siteId, false);
+        m_partitionId = partitionId;
+        m_maxBytes = maxBytes;
+    }
+
+    /**
+     * @return true if any procedure opted in to result caching
+     */
+    public static boolean isEnabled() {
+        return !s_cachedProcedures.isEmpty();
+    }
+
+    /**
+     * @return true if the results of the procedure may be cached
+     */
+    public static boolean isCacheable(Procedure catProc) {
+        return s_cachedProcedures.contains(catProc.getTypeName()) &&
+                catProc.getReadonly() && catProc.getSinglepartition() && !catProc.getSystemproc();
+    }
+
+    static Set<String> parseProcedureNames(String names) {
+        Set<String> procedures = new HashSet<>();
+        for (String name : names.split(",")) {
+            name = name.trim();
+            if (!name.isEmpty()) {
+                procedures.add(name);
+            }
+        }
+        return Collections.unmodifiableSet(procedures);
+    }
+
+    /**
+     * @return the tables read by the statements of the procedure, plus {@link #ANY_TABLE}
+     * if one of them is a view
+     */
+    public static String[] getTablesRead(Database db, Procedure catProc) {
+        Set<String> tables = new HashSet<>();
+        for (Statement stmt : catProc.getStatements()) {
+            if (stmt.getTablesread() == null) {
+                continue;
+            }
+            for (String name : stmt.getTablesread().split(",")) {
+                if (name.isEmpty()) {
+                    continue;
+                }
+                Table table = db.getTables().getIgnoreCase(name);
+                if (table == null || table.getMaterializer() != null || !table.getMvhandlerinfo().isEmpty()) {
+                    tables.add(ANY_TABLE);
+                }
+                tables.add(name);
+            }
+        }
+        return tables.toArray(new String[tables.size()]);
+    }
+
+    /**
+     * Look up a cached response.
+     * @return a response over the cached results, or null if there is none or it is stale
+     */
+    public ClientResponseImpl get(String procedureName, ByteBuffer params) {
+        Key key = new Key(procedureName, params);
+        Entry entry = m_entries.get(key);
+        if (entry == null) {
+            m_misses++;
+            return null;
+        }
+        for (int i = 0; i < entry.m_tables.length; i++) {
+            if (getGeneration(entry.m_tables[i]) != entry.m_generations[i]) {
+                m_entries.remove(key);
+                m_bytes -= entry.m_size;
+                m_invalidations++;
+                m_misses++;
+                return null;
+            }
+        }
+        m_hits++;
+        return entry.toResponse();
+    }
+
+    /**
+     * Cache a successful response of a procedure reading the given tables.
+     * The caller must not have written anything since the procedure read the tables.
+     */
+    public void put(String procedureName, ByteBuffer params, String[] tables, ClientResponseImpl response) {
+        if (response.getStatus() != ClientResponse.SUCCESS) {
+            return;
+        }
+        long[] generations = new long[tables.length];
+        for (int i = 0; i < tables.length; i++) {
+            generations[i] = getGeneration(tables[i]);
+        }
+        ByteBuffer paramsCopy = ByteBuffer.allocate(params.remaining());
+        paramsCopy.put(params.duplicate());
+        paramsCopy.flip();
+        Entry entry = new Entry(tables, generations, response, paramsCopy.capacity());
+        if (entry.m_size > m_maxBytes) {
+            return;
+        }
+        Entry previous = m_entries.put(new Key(procedureName, paramsCopy), entry);
+        if (previous != null) {
+            m_bytes -= previous.m_size;
+        }
+        m_bytes += entry.m_size;
+
+        Iterator<Entry> iter = m_entries.values().iterator();
+        while (m_bytes > m_maxBytes && iter.hasNext()) {
+            m_bytes -= iter.next().m_size;
+            iter.remove();
+            m_evictions++;
+        }
+    }
+
+    /**
+     * Record a write to the given tables, making stale every entry that read one of them.
+     */
+    public void tablesWritten(String[] tables) {
+        for (String table : tables) {
+            bumpGeneration(table);
+        }
+        bumpGeneration(ANY_TABLE);
+    }
+
+    /**
+     * Drop every entry, for writes to unknown tables.
+     */
+    public void invalidateAll() {
+        m_invalidations += m_entries.size();
+        m_entries.clear();
+        m_bytes = 0;
+    }
+
+    private long getGeneration(String table) {
+        long[] generation = m_tableGenerations.get(table);
+        return generation == null ? 0 : generation[0];
+    }
+
+    private void bumpGeneration(String table) {
+        long[] generation = m_tableGenerations.get(table);
+        if (generation == null) {
+            m_tableGenerations.put(table, new long[] { 1 });
+        } else {
+            generation[0]++;
+        }
+    }
+
+    int getEntryCount() {
+        return m_entries.size();
+    }
+
+    long getHits() {
+        return m_hits;
+    }
+
+    long getMisses() {
+        return m_misses;
+    }
+
+    @Override
+    protected void populateColumnSchema(ArrayList<ColumnInfo> columns) {
+        super.populateColumnSchema(columns);
+        columns.add(new ColumnInfo("PARTITION_ID",  VoltType.INTEGER));
+        columns.add(new ColumnInfo("ENTRIES",       VoltType.INTEGER));
+        columns.add(new ColumnInfo("SIZE",          VoltType.BIGINT));
+        columns.add(new ColumnInfo("HITS",          VoltType.BIGINT));
+        columns.add(new ColumnInfo("MISSES",        VoltType.BIGINT));
+        columns.add(new ColumnInfo("HIT_RATE",      VoltType.FLOAT));
+        columns.add(new ColumnInfo("INVALIDATIONS", VoltType.BIGINT));
+        columns.add(new ColumnInfo("EVICTIONS",     VoltType.BIGINT));
+    }
+
+    @Override
+    protected void updateStatsRow(Object rowKey, Object rowValues[]) {
+        final long hits = m_hits;
+        final long lookups = hits + m_misses;
+        rowValues[columnNameToIndex.get("PARTITION_ID")] = m_partitionId;
+        rowValues[columnNameToIndex.get("ENTRIES")] = m_entries.size();
+        rowValues[columnNameToIndex.get("SIZE")] = m_bytes / 1024;
+        rowValues[columnNameToIndex.get("HITS")] = hits;
+        rowValues[columnNameToIndex.get("MISSES")] = m_misses;
+        rowValues[columnNameToIndex.get("HIT_RATE")] = lookups == 0 ? 0.0 : (double) hits / lookups;
+        rowValues[columnNameToIndex.get("INVALIDATIONS")] = m_invalidations;
+        rowValues[columnNameToIndex.get("EVICTIONS")] = m_evictions;
+        super.updateStatsRow(rowKey, rowValues);
+    }
+
+    @Override
+    protected Iterator<Object> getStatsRowKeyIterator(boolean interval) {
+        return Collections.<Object>singletonList(m_partitionId).iterator();
+    }
+}
@@ -21,6 +21,9 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -35,10 +38,12 @@ import java.util.Map.Entry;
 import java.util.Random;
 import java.util.concurrent.ExecutionException;
 
+import org.apache.commons.lang3.ArrayUtils;
 import org.voltcore.logging.VoltLogger;
 import org.voltcore.utils.CoreUtils;
 import org.voltdb.StatementStats.SingleCallStatsToken;
 import org.voltdb.VoltProcedure.VoltAbortException;
+import org.voltdb.catalog.Database;
 import org.voltdb.catalog.PlanFragment;
 import org.voltdb.catalog.ProcParameter;
 import org.voltdb.catalog.Procedure;
@@ -91,6 +96,8 @@ public class ProcedureRunner {
     static class QueuedSQL {
         SQLStmt stmt;
         ParameterSet params;
+        // parameters as serialized by the client, passed to the EE instead of params when set
+        ByteBuffer serializedParams;
         Expectation expectation = null;
     }
     protected final ArrayList<QueuedSQL> m_batch = new ArrayList<QueuedSQL>(100);
@@ -112,6 +119,8 @@ public class ProcedureRunner {
     protected final String m_procedureName;
     protected final VoltProcedure m_procedure;
     protected Method m_procMethod;
+    // m_procMethod bound to m_procedure, taking the parameters as an Object[]
+    protected MethodHandle m_procInvoker;
     protected Class<?>[] m_paramTypes;
 
     // per txn state (are reset after call)
@@ -143,6 +152,8 @@ public class ProcedureRunner {
     protected final boolean m_isReadOnly;
     protected final int m_partitionColumn;
     protected final VoltType m_partitionColumnType;
+    // single statement SP procedures can hand the client's serialized parameters to the EE
+    protected final boolean m_canPassSerializedParams;
 
     // dependency ids for ad hoc
     protected final static int AGG_DEPID = 1;
@@ -153,10 +164,20 @@ public class ProcedureRunner {
     // running procedure info
     //  - track the current call to voltExecuteSQL for logging progress
     protected int m_batchIndex;
+    // Results of the last batch which still are views into the EE buffer shared by every
+    // batch after the first, copied to the heap before the next batch, before loading a
+    // table, which reuses that buffer, and at the end of the procedure
+    private VoltTable[] m_resultsInSharedBuffer = null;
 
     /** boolean flag to mark whether the previous batch execution has EE exception or not.*/
     private long m_spBigBatchBeginToken;
 
+    // result cache of the site if this procedure opted in, and the tables its statements read
+    private ProcedureResultCache m_resultCache;
+    private String[] m_resultCacheTables;
+    // set when the current call queued ad hoc SQL, which may read other tables
+    private boolean m_queuedAdHocSQL = false;
+
     // Used to get around the "abstract" for StmtProcedures.
     // Path of least resistance?
     static class StmtProcedure extends VoltProcedure {
@@ -193,6 +214,9 @@ public class ProcedureRunner {
         // The variable names are used in the granular statistics.
         m_stmtList = reflect();
 
+        m_canPassSerializedParams = !m_hasJava && !m_isSysProc && m_isSinglePartition &&
+                m_catProc.getStatements().size() == 1;
+
         if (site != null) {
             initSiteAndStats(m_site);
         }
@@ -219,6 +243,11 @@ public class ProcedureRunner {
             m_statsCollector.setProcSamplingInterval(statsOption.procSamplingInterval());
             m_statsCollector.setStmtSamplingInterval(statsOption.stmtSamplingInterval());
         }
+
+        if (site instanceof Site && ProcedureResultCache.isCacheable(m_catProc)) {
+            m_resultCache = ((Site) site).getProcedureResultCache();
+            m_resultCacheTables = ProcedureResultCache.getTablesRead((Database) m_catProc.getParent(), m_catProc);
+        }
     }
 
     /**
@@ -273,20 +302,65 @@ public class ProcedureRunner {
         return m_cachedRNG;
     }
 
+    /**
+     * Get the serialized parameters of an invocation if this procedure can pass them to the EE
+     * without deserializing them. That's the case for a single statement procedure when the client
+     * sent exactly the parameter types of the statement, since converting them is a no-op.
+     * @return the serialized parameters, or null if they must be deserialized
+     */
+    public ByteBuffer getPassThroughParams(StoredProcedureInvocation invocation) {
+        if (!m_canPassSerializedParams || getNonVoltDBBackendIfExists() != null) {
+            return null;
+        }
+        ByteBuffer serialized = invocation.getSerializedParams();
+        if (serialized == null ||
+                !ParameterSet.hasExactTypes(serialized, m_sqlStmts.get(0).stmt.statementParamTypes)) {
+            return null;
+        }
+        return serialized;
+    }
+
     /**
      * Wraps coreCall with statistics code.
      */
     public ClientResponseImpl call(Object... paramListIn) {
+        return call(paramListIn, null);
+    }
+
+    /**
+     * Run a single statement procedure on parameters from {@link #getPassThroughParams}.
+     */
+    public ClientResponseImpl callWithSerializedParams(ByteBuffer serializedParams) {
+        return call(ArrayUtils.EMPTY_OBJECT_ARRAY, serializedParams);
+    }
+
+    private ClientResponseImpl call(Object[] paramListIn, ByteBuffer serializedParams) {
         m_perCallStats = m_statsCollector.beginProcedure();
 
         // if we're keeping track, calculate parameter size
-        if (m_perCallStats != null) {
+        if (m_perCallStats != null && serializedParams != null) {
+            m_perCallStats.setParameterSize(serializedParams.remaining());
+        } else if (m_perCallStats != null) {
             StoredProcedureInvocation invoc = (m_txnState != null ? m_txnState.getInvocation() : null);
             ParameterSet params = (invoc != null ? invoc.getParams() : ParameterSet.fromArrayNoCopy(paramListIn));
             m_perCallStats.setParameterSize(params.getSerializedSize());
         }
 
-        ClientResponseImpl result = coreCall(paramListIn);
+        ByteBuffer cacheKey = null;
+        ClientResponseImpl result = null;
+        if (m_resultCache != null) {
+            cacheKey = getSerializedParams(paramListIn);
+            result = m_resultCache.get(m_catProc.getTypeName(), cacheKey);
+        }
+        if (result != null) {
+            m_txnState = null;
+        } else {
+            m_queuedAdHocSQL = false;
+            result = coreCall(paramListIn, serializedParams);
+            if (cacheKey != null && !m_queuedAdHocSQL) {
+                m_resultCache.put(m_catProc.getTypeName(), cacheKey, m_resultCacheTables, result);
+            }
+        }
 
         // if we're keeping track, calculate result size
         if (m_perCallStats != null) {
@@ -303,6 +377,26 @@ public class ProcedureRunner {
         return result;
     }
 
+    /**
+     * @return the serialized parameters of the current invocation, used as the result cache key
+     */
+    private ByteBuffer getSerializedParams(Object[] paramListIn) {
+        StoredProcedureInvocation invoc = (m_txnState != null ? m_txnState.getInvocation() : null);
+        ByteBuffer serialized = (invoc != null ? invoc.getSerializedParams() : null);
+        if (serialized != null) {
+            return serialized;
+        }
+        ParameterSet params = (invoc != null ? invoc.getParams() : ParameterSet.fromArrayNoCopy(paramListIn));
+        serialized = ByteBuffer.allocate(params.getSerializedSize());
+        try {
+            params.flattenToBuffer(serialized);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        serialized.flip();
+        return serialized;
+    }
+
     /**
      * @return Custom batch timeout value or 0 if there isn't one.
      */
@@ -313,7 +407,7 @@ public class ProcedureRunner {
     }
 
     @SuppressWarnings("finally")
-    private ClientResponseImpl coreCall(Object... paramListIn) {
+    private ClientResponseImpl coreCall(Object[] paramListIn, ByteBuffer serializedParams) {
         // verify per-txn state has been reset
         assert(m_statusCode == ClientResponse.SUCCESS);
         assert(m_statusString == null);
@@ -354,14 +448,14 @@ public class ProcedureRunner {
                 paramList = combinedParams;
             }
 
-            if (paramList.length != m_paramTypes.length) {
+            if (serializedParams == null && paramList.length != m_paramTypes.length) {
                 String msg = "PROCEDURE " + m_procedureName + " EXPECTS " + String.valueOf(m_paramTypes.length) +
                     " PARAMS, BUT RECEIVED " + String.valueOf(paramList.length);
                 m_statusCode = ClientResponse.GRACEFUL_FAILURE;
                 return getErrorResponse(m_statusCode, m_appStatusCode, m_appStatusString, msg, null);
             }
 
-            for (int i = 0; i < m_paramTypes.length; i++) {
+            for (int i = 0; serializedParams == null && i < m_paramTypes.length; i++) {
                 try {
                     paramList[i] = ParameterConverter.tryToMakeCompatible(m_paramTypes[i], paramList[i]);
                     // check the result type in an assert
@@ -381,7 +475,7 @@ public class ProcedureRunner {
                         log.trace("invoking... procMethod=" + m_procMethod.getName() + ", class=" + m_procMethod.getDeclaringClass().getName());
                     }
                     try {
-                        Object rawResult = m_procMethod.invoke(m_procedure, paramList);
+                        Object rawResult = invokeProcedure(paramList);
 
                         results = ParameterConverter.getResultsFromRawResults(m_procedureName, rawResult);
                     } catch (IllegalAccessException e) {
@@ -422,9 +516,13 @@ public class ProcedureRunner {
                  assert(m_catProc.getStatements().size() >= 1);
                 int curParamOffset = 0;
                 try {
+                    if (serializedParams != null) {
+                        // the parameters already are what the EE expects, skip the conversions
+                        m_sqlStmts.get(0).serializedParams = serializedParams;
+                    }
                     // get all the statements and their corresponding parameters
                     // the parameter offset ensures the right parameters are obtained for each statement
-                    for (int i = 0; i < m_catProc.getStatements().size(); i++) {
+                    for (int i = 0; serializedParams == null && i < m_catProc.getStatements().size(); i++) {
                         QueuedSQL curStmt = m_sqlStmts.get(i);
                         int numStmtParams = curStmt.stmt.statementParamTypes.length;
                         Object[] stmtParamList = Arrays.copyOfRange(paramList, curParamOffset,
@@ -489,6 +587,7 @@ public class ProcedureRunner {
             m_batch.clear();
             for ( QueuedSQL stmt: m_sqlStmts ) {
                 stmt.params = null;
+                stmt.serializedParams = null;
                 stmt.expectation = null;
             }
 
@@ -499,6 +598,8 @@ public class ProcedureRunner {
             m_appStatusCode = ClientResponse.UNINITIALIZED_APP_STATUS_CODE;
             m_appStatusString = null;
             m_cachedRNG = null;
+            // The procedure may keep results across calls
+            copyResultsOutOfSharedBuffer();
             m_cachedSingleStmt.params = null;
             m_cachedSingleStmt.expectation = null;
             m_seenFinalBatch = false;
@@ -680,6 +781,7 @@ public class ProcedureRunner {
         }
 
         try {
+            m_queuedAdHocSQL = true;
             AdHocPlannedStmtBatch batch = AdHocNTBase.plan(VoltDB.instance().getCatalogContext().m_ptool,
                     sql, args, m_isSinglePartition);
 
@@ -868,6 +970,7 @@ public class ProcedureRunner {
         if (data == null || data.getRowCount() == 0) {
             return null;
         }
+        copyResultsOutOfSharedBuffer();
         try {
             return m_site.loadTable(m_txnState.txnId, m_txnState.m_spHandle, m_txnState.uniqueId,
                     clusterName, databaseName,
@@ -890,6 +993,39 @@ public class ProcedureRunner {
         return sysproc.executePlanFragment(dependencies, fragmentId, params, m_site.getSystemProcedureExecutionContext());
     }
 
+    /**
+     * Build a method handle calling the procedure's run method with the parameters spread
+     * out of an Object[], which the JIT can inline unlike a reflective call.
+     * @return the handle, or null if the method is not accessible to a handle
+     */
+    static MethodHandle getProcInvoker(Method procMethod, Object procedure) {
+        try {
+            MethodHandle invoker = MethodHandles.lookup().unreflect(procMethod);
+            if (!Modifier.isStatic(procMethod.getModifiers())) {
+                invoker = invoker.bindTo(procedure);
+            }
+            return invoker.asSpreader(Object[].class, procMethod.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Call the procedure's run method. Exceptions thrown by the procedure are wrapped in
+     * an InvocationTargetException as by {@link Method#invoke}.
+     */
+    private Object invokeProcedure(Object[] paramList) throws IllegalAccessException, InvocationTargetException {
+        if (m_procInvoker == null) {
+            return m_procMethod.invoke(m_procedure, paramList);
+        }
+        try {
+            return (Object) m_procInvoker.invokeExact(paramList);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
     private final void throwIfInfeasibleTypeConversion(SQLStmt stmt, Class<?> argClass, int argInd,
             VoltType expectedType) {
         if (argClass.isArray()) {
@@ -966,6 +1102,11 @@ public class ProcedureRunner {
                     + " was expected for statement " + stmt.getText());
         }
 
+        Class<?>[] verifiedArgClasses = stmt.verifiedArgClasses;
+        if (verifyTypeConv && verifiedArgClasses == null) {
+            verifiedArgClasses = stmt.verifiedArgClasses = new Class<?>[numParamTypes];
+        }
+
         for (int ii = 0; ii < numParamTypes; ii++) {
             VoltType type = VoltType.get(stmtParamTypes[ii]);
             // handle non-null values
@@ -973,7 +1114,12 @@ public class ProcedureRunner {
                 args[ii] = inArgs[ii];
                 assert(type != VoltType.INVALID);
                 if (verifyTypeConv && type != VoltType.INVALID) {
-                    throwIfInfeasibleTypeConversion(stmt, args[ii].getClass(), ii, type);
+                    // The check only depends on the class, skip it for the class that last passed
+                    Class<?> argClass = args[ii].getClass();
+                    if (verifiedArgClasses[ii] != argClass) {
+                        throwIfInfeasibleTypeConversion(stmt, argClass, ii, type);
+                        verifiedArgClasses[ii] = argClass;
+                    }
                 }
                 continue;
             }
@@ -1025,11 +1171,22 @@ public class ProcedureRunner {
     public void initSQLStmt(SQLStmt stmt, Statement catStmt) {
 
         int fragCount = catStmt.getFragments().size();
+        // A write statement which doesn't name its table may write anything, null tells
+        // the result cache so
+        String updated = catStmt.getTablesupdated();
+        String[] tablesUpdated = null;
+        if (updated != null && !updated.isEmpty()) {
+            tablesUpdated = updated.split(",");
+        }
+        else if (catStmt.getReadonly()) {
+            tablesUpdated = new String[0];
+        }
 
         for (PlanFragment frag : catStmt.getFragments()) {
             byte[] planHash = Encoder.hexDecode(frag.getPlanhash());
             byte[] plan = CompressionService.decodeBase64AndDecompressToBytes(frag.getPlannodetree());
-            long id = ActivePlanRepository.loadOrAddRefPlanFragment(planHash, plan, catStmt.getSqltext());
+            long id = ActivePlanRepository.loadOrAddRefPlanFragment(planHash, plan, catStmt.getSqltext(),
+                    tablesUpdated);
             boolean transactional = frag.getNontransactional() == false;
 
             SQLStmt.Frag stmtFrag = new SQLStmt.Frag(id, planHash, transactional);
@@ -1048,6 +1205,7 @@ public class ProcedureRunner {
 
         int numStatementParamTypes = catStmt.getParameters().size();
         stmt.statementParamTypes = new byte[numStatementParamTypes];
+        stmt.verifiedArgClasses = null;
         for (StmtParameter param : catStmt.getParameters()) {
             int index = param.getIndex();
             // Array-typed params currently only arise from in-lists.
@@ -1129,6 +1287,7 @@ public class ProcedureRunner {
             if (m_procMethod == null) {
                 throw new RuntimeException("No \"run\" method found in: " + m_procedure.getClass().getName());
             }
+            m_procInvoker = getProcInvoker(m_procMethod, m_procedure);
             // iterate through the fields and deal with sql statements
             try {
                 stmtMap = ProcedureCompiler.getValidSQLStmts(null, m_procedureName, m_procedure.getClass(), m_procedure,
@@ -1336,6 +1495,17 @@ public class ProcedureRunner {
        return response;
     }
 
+    /**
+     * Copy the results of the last batch out of the EE buffer shared by every batch
+     * after the first, before it is overwritten.
+     */
+    private void copyResultsOutOfSharedBuffer() {
+        if (m_resultsInSharedBuffer != null) {
+            convertTablesToHeapBuffers(m_resultsInSharedBuffer);
+            m_resultsInSharedBuffer = null;
+        }
+    }
+
     final private VoltTable[] convertTablesToHeapBuffers(VoltTable[] results) {
         for (VoltTable table : results) {
             // Make sure this table does not use an ee cache buffer
@@ -1600,7 +1770,7 @@ public class ProcedureRunner {
             assert (qs.stmt.collector == null);
             fragmentIds[i] = qs.stmt.aggregator.id;
             // use the pre-serialized params if it exists
-            params[i] = qs.params;
+            params[i] = qs.serializedParams != null ? qs.serializedParams : qs.params;
             sqlTexts[i] = qs.stmt.getText();
             isWriteFrag[i] = !qs.stmt.isReadOnly;
             sqlCRCs[i] = SQLStmtAdHocHelper.getHash(qs.stmt);
@@ -1611,6 +1781,8 @@ public class ProcedureRunner {
         // Before executing the fragments, tell the EE if this batch should be
         // timed.
         getExecutionEngine().setPerFragmentTimingEnabled(m_perCallStats.samplingStmts());
+        // The procedure may still hold the results of the previous batch
+        copyResultsOutOfSharedBuffer();
         try {
             FastDeserializer fragResult = m_site.executePlanFragments(batchSize, fragmentIds, null, params,
                     m_determinismHash, sqlTexts, isWriteFrag, sqlCRCs, m_txnState.txnId, m_txnState.m_spHandle,
@@ -1626,14 +1798,24 @@ public class ProcedureRunner {
                 throw new EEException(ExecutionEngine.ERRORCODE_WRONG_SERIALIZED_BYTES);
             }
             final ByteBuffer rawDataBuff;
-            if ((m_batchIndex == 0 && !m_site.usingFallbackBuffer()) || finalTask) {
-                // If this is the first or final batch, skip the copy of the
-                // underlying byte array
+            if (!m_site.usingFallbackBuffer() || finalTask) {
+                // Skip the copy of the underlying byte array. The results of the
+                // first batch have a buffer to themselves, the results of later
+                // batches are copied only if another batch is executed, the ones
+                // returned by the procedure are copied when it returns.
                 rawDataBuff = fragResult.buffer();
             } else {
                 rawDataBuff = fragResult.readBuffer(totalSize);
             }
             results = TableHelper.convertBackedBufferToTables(rawDataBuff, batchSize);
+            if (m_batchIndex != 0 && rawDataBuff.isDirect()) {
+                if (m_isSysProc) {
+                    // System procedures may use the EE's shared buffers between batches
+                    convertTablesToHeapBuffers(results);
+                } else {
+                    m_resultsInSharedBuffer = results;
+                }
+            }
         } catch (Throwable ex) {
             if (!m_isReadOnly) {
                 // roll back the current batch and re-throw the EE exception
@@ -1660,8 +1842,13 @@ public class ProcedureRunner {
                 // succeededFragmentsCount is the one that failed.
                 boolean failed = i == succeededFragmentsCount;
 
+                int paramSize = 0;
+                if (m_perCallStats.samplingStmts()) {
+                    // Pass-through parameters were consumed by the EE, so use their limit
+                    paramSize = qs.params != null ? qs.params.getSerializedSize() : qs.serializedParams.limit();
+                }
                 m_perCallStats.recordStatementStats(qs.stmt.getStmtName(), isCoordinatorTask, failed,
-                        executionTimes == null ? 0 : executionTimes[i], results == null ? null : results[i], qs.params);
+                        executionTimes == null ? 0 : executionTimes[i], results == null ? null : results[i], paramSize);
 
                 // If this fragment failed, no subsequent fragments will be
                 // executed.
@@ -66,6 +66,24 @@ public class ProcedureStatsCollector extends SiteStatsSource {
     private final StatsData m_procStatsData;
     private final boolean m_isTransactional;
     private final boolean m_isUAC;
+    // Indexes of the columns in a stats row, resolved once instead of for every row
+    private final int m_partitionIdCol;
+    private final int m_procedureCol;
+    private final int m_statementCol;
+    private final int m_invocationsCol;
+    private final int m_timedInvocationsCol;
+    private final int m_minExecutionTimeCol;
+    private final int m_maxExecutionTimeCol;
+    private final int m_avgExecutionTimeCol;
+    private final int m_minResultSizeCol;
+    private final int m_maxResultSizeCol;
+    private final int m_avgResultSizeCol;
+    private final int m_minParameterSetSizeCol;
+    private final int m_maxParameterSetSizeCol;
+    private final int m_avgParameterSetSizeCol;
+    private final int m_abortsCol;
+    private final int m_failuresCol;
+    private final int m_transactionalCol;
 
     public ProcedureStatsCollector(long siteId,
                                    int partitionId,
@@ -84,6 +102,23 @@ public class ProcedureStatsCollector extends SiteStatsSource {
                                    boolean isTransactional)
     {
         super(siteId, false);
+        m_partitionIdCol = columnNameToIndex.get("PARTITION_ID");
+        m_procedureCol = columnNameToIndex.get("PROCEDURE");
+        m_statementCol = columnNameToIndex.get("STATEMENT");
+        m_invocationsCol = columnNameToIndex.get("INVOCATIONS");
+        m_timedInvocationsCol = columnNameToIndex.get("TIMED_INVOCATIONS");
+        m_minExecutionTimeCol = columnNameToIndex.get("MIN_EXECUTION_TIME");
+        m_maxExecutionTimeCol = columnNameToIndex.get("MAX_EXECUTION_TIME");
+        m_avgExecutionTimeCol = columnNameToIndex.get("AVG_EXECUTION_TIME");
+        m_minResultSizeCol = columnNameToIndex.get("MIN_RESULT_SIZE");
+        m_maxResultSizeCol = columnNameToIndex.get("MAX_RESULT_SIZE");
+        m_avgResultSizeCol = columnNameToIndex.get("AVG_RESULT_SIZE");
+        m_minParameterSetSizeCol = columnNameToIndex.get("MIN_PARAMETER_SET_SIZE");
+        m_maxParameterSetSizeCol = columnNameToIndex.get("MAX_PARAMETER_SET_SIZE");
+        m_avgParameterSetSizeCol = columnNameToIndex.get("AVG_PARAMETER_SET_SIZE");
+        m_abortsCol = columnNameToIndex.get("ABORTS");
+        m_failuresCol = columnNameToIndex.get("FAILURES");
+        m_transactionalCol = columnNameToIndex.get("TRANSACTIONAL");
         m_partitionId = partitionId;
         m_procName = procName;
 
@@ -281,11 +316,11 @@ public class ProcedureStatsCollector extends SiteStatsSource {
     @Override
     protected void updateStatsRow(Object rowKey, Object rowValues[]) {
         super.updateStatsRow(rowKey, rowValues);
-        rowValues[columnNameToIndex.get("PARTITION_ID")] = m_partitionId;
-        rowValues[columnNameToIndex.get("PROCEDURE")] = m_procName;
+        rowValues[m_partitionIdCol] = m_partitionId;
+        rowValues[m_procedureCol] = m_procName;
         StatementStats currRow = (StatementStats)rowKey;
         assert(currRow != null);
-        rowValues[columnNameToIndex.get("STATEMENT")] = currRow.m_stmtName;
+        rowValues[m_statementCol] = currRow.m_stmtName;
 
         long invocations = currRow.getInvocations();
         long timedInvocations = currRow.getTimedInvocations();
@@ -319,29 +354,29 @@ public class ProcedureStatsCollector extends SiteStatsSource {
             timedInvocations -= currRow.getLastTimedInvocationsAndReset();
         }
 
-        rowValues[columnNameToIndex.get("INVOCATIONS")] = invocations;
-        rowValues[columnNameToIndex.get("TIMED_INVOCATIONS")] = timedInvocations;
-        rowValues[columnNameToIndex.get("MIN_EXECUTION_TIME")] = minExecutionTime;
-        rowValues[columnNameToIndex.get("MAX_EXECUTION_TIME")] = maxExecutionTime;
+        rowValues[m_invocationsCol] = invocations;
+        rowValues[m_timedInvocationsCol] = timedInvocations;
+        rowValues[m_minExecutionTimeCol] = minExecutionTime;
+        rowValues[m_maxExecutionTimeCol] = maxExecutionTime;
         if (timedInvocations != 0) {
-            rowValues[columnNameToIndex.get("AVG_EXECUTION_TIME")] =
+            rowValues[m_avgExecutionTimeCol] =
                  (totalTimedExecutionTime / timedInvocations);
-            rowValues[columnNameToIndex.get("AVG_RESULT_SIZE")] =
+            rowValues[m_avgResultSizeCol] =
                     (totalResultSize / timedInvocations);
-            rowValues[columnNameToIndex.get("AVG_PARAMETER_SET_SIZE")] =
+            rowValues[m_avgParameterSetSizeCol] =
                     (totalParameterSetSize / timedInvocations);
         } else {
-            rowValues[columnNameToIndex.get("AVG_EXECUTION_TIME")] = 0L;
-            rowValues[columnNameToIndex.get("AVG_RESULT_SIZE")] = 0;
-            rowValues[columnNameToIndex.get("AVG_PARAMETER_SET_SIZE")] = 0;
+            rowValues[m_avgExecutionTimeCol] = 0L;
+            rowValues[m_avgResultSizeCol] = 0;
+            rowValues[m_avgParameterSetSizeCol] = 0;
         }
-        rowValues[columnNameToIndex.get("ABORTS")] = abortCount;
-        rowValues[columnNameToIndex.get("FAILURES")] = failureCount;
-        rowValues[columnNameToIndex.get("MIN_RESULT_SIZE")] = minResultSize;
-        rowValues[columnNameToIndex.get("MAX_RESULT_SIZE")] = maxResultSize;
-        rowValues[columnNameToIndex.get("MIN_PARAMETER_SET_SIZE")] = minParameterSetSize;
-        rowValues[columnNameToIndex.get("MAX_PARAMETER_SET_SIZE")] = maxParameterSetSize;
-        rowValues[columnNameToIndex.get("TRANSACTIONAL")] = (byte) (m_isTransactional ? 1 : 0);
+        rowValues[m_abortsCol] = abortCount;
+        rowValues[m_failuresCol] = failureCount;
+        rowValues[m_minResultSizeCol] = minResultSize;
+        rowValues[m_maxResultSizeCol] = maxResultSize;
+        rowValues[m_minParameterSetSizeCol] = minParameterSetSize;
+        rowValues[m_maxParameterSetSizeCol] = maxParameterSetSize;
+        rowValues[m_transactionalCol] = (byte) (m_isTransactional ? 1 : 0);
     }
 
     /**
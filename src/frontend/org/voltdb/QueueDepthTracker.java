@@ -118,17 +118,33 @@ public class QueueDepthTracker extends SiteStatsSource {
         columns.add(new ColumnInfo("MAX_WAIT", VoltType.BIGINT));
     }
 
+    public int getQueueDepth() {
+        return m_depth.get();
+    }
+
+    /**
+     * @return the longest time a task waited in the queue in the last half second, in nanoseconds
+     */
+    public long getRecentMaxWaitTime() {
+        return m_recentMaxWaitTime;
+    }
+
+    /**
+     * @return how long the task at the head of the queue has been waiting, in nanoseconds
+     */
+    public long getCurrentWaitTime(long currentTime) {
+        SiteTasker nextTask = m_tasks.peek();
+        if (nextTask == null) {
+            return 0;
+        }
+        return currentTime - nextTask.getQueueOfferTime();
+    }
+
     @Override
     protected void updateStatsRow(Object rowKey, Object rowValues[]) {
         long currentTime = System.nanoTime();
         // check if current wait time exceeds the maxWaitTime
-        long currentWaitTime;
-        SiteTasker nextTask = m_tasks.peek();
-        if (nextTask == null) {
-            currentWaitTime = 0;
-        } else {
-            currentWaitTime = currentTime - nextTask.getQueueOfferTime();
-        }
+        long currentWaitTime = getCurrentWaitTime(currentTime);
         // check historicalMaxWaitTime, report max wait time and mean wait time in window
         long maxWaitTimeInWindow = Math.max(currentWaitTime, m_recentMaxWaitTime);
         long totalWaitTimeInWindow = 0;
@@ -55,6 +55,8 @@ public class SQLStmt {
     int sqlCRC;
 
     byte statementParamTypes[];
+    // Argument classes last checked to convert to statementParamTypes
+    Class<?> verifiedArgClasses[];
 
     Frag aggregator;
     Frag collector;
@@ -79,6 +79,15 @@ public class SnapshotSiteProcessor {
     /** Optional parameter to disable immediate rescheduling of snapshot work when partition is idle. */
     private static final boolean DISABLE_IMMEDIATE_SNAPSHOT_RESCHEDULING = Boolean.valueOf(System.getProperty("DISABLE_IMMEDIATE_SNAPSHOT_RESCHEDULING","false"));
 
+    /*
+     * When set, transactions that waited longer than this in the site queue make the quiet
+     * period between snapshot work units grow, up to MAX_SNAPSHOT_BACKOFF times the one
+     * given by the snapshot priority. It shrinks back once the queue keeps within the budget.
+     */
+    static long SNAPSHOT_LATENCY_BUDGET_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Integer.getInteger("SNAPSHOT_LATENCY_BUDGET_MS", 0));
+    private static final int MAX_SNAPSHOT_BACKOFF = 16;
+
     /** Global count of execution sites on this node performing snapshot */
     public static final Set<Object> ExecutionSitesCurrentlySnapshotting =
             Collections.synchronizedSet(new HashSet<Object>());
@@ -151,9 +160,12 @@ public class SnapshotSiteProcessor {
         CompressionService.maxCompressedLength(m_snapshotBufferLength);
 
     /**
-     * Limit the number of buffers that are outstanding at any given time
+     * Limit the number of buffers that are outstanding at any given time. Stream snapshot
+     * buffers are only returned once the rejoining site acks them, so this is also the window
+     * of unacked blocks streamed to rejoining sites of this host.
      */
-    private static final AtomicInteger m_availableSnapshotBuffers = new AtomicInteger(16);
+    private static final AtomicInteger m_availableSnapshotBuffers =
+            new AtomicInteger(Math.max(1, Integer.getInteger("SNAPSHOT_BUFFER_COUNT", 16)));
 
     /**
      * The last EE out has to shut off the lights. Cache a list
@@ -250,6 +262,16 @@ public class SnapshotSiteProcessor {
     }
 
     private long m_quietUntil = 0;
+    // Multiplier of the quiet period, grows while transactions wait longer than the latency budget.
+    // Only updated by the site thread, but snapshot work is also rescheduled by the write threads
+    private volatile int m_snapshotBackoff = 1;
+
+    // Time the site thread spent on snapshot work during the current snapshot
+    private long m_snapshotStartNanos;
+    private long m_snapshotWorkNanos;
+    private long m_maxSnapshotWorkNanos;
+    private int m_snapshotWorkUnits;
+    private int m_snapshotThrottles;
 
     public SnapshotSiteProcessor(SiteTaskerQueue siteQueue, int snapshotPriority) {
         this(siteQueue, snapshotPriority, new IdlePredicate() {
@@ -310,7 +332,7 @@ public class SnapshotSiteProcessor {
         };
     }
 
-    private void rescheduleSnapshotWork() {
+    void rescheduleSnapshotWork() {
         /*
          * If IV2 is enabled, don't run the potential snapshot work jigger
          * until the quiet period restrictions have been met. In IV2 doSnapshotWork
@@ -336,6 +358,7 @@ public class SnapshotSiteProcessor {
             //briefly. Caching it locally will make the logic here saner because it can't change
             //as execution progresses
             final long quietUntil = m_quietUntil;
+            final int backoff = m_snapshotBackoff;
 
                     /*
                      * If the current time is > than quietUntil then the quiet period is over
@@ -344,7 +367,7 @@ public class SnapshotSiteProcessor {
                      * Otherwise it needs to be scheduled in the future and the next quiet period
                      * needs to be calculated
                      */
-            if (now > quietUntil) {
+            if (now > quietUntil && backoff == 1) {
                 m_siteTaskerQueue.offer(new SnapshotTask());
                 //Now push the quiet period further into the future,
                 //generally no threads will be racing to do this
@@ -354,6 +377,23 @@ public class SnapshotSiteProcessor {
                 m_quietUntil =
                         System.currentTimeMillis() +
                                 (5 * m_snapshotPriority) + ((long)(m_random.nextDouble() * 15));
+            } else if (backoff > 1) {
+                //Transactions are queueing up, leave the site alone for a longer quiet period
+                final long quietPeriod =
+                        ((5 * m_snapshotPriority) + ((long)(m_random.nextDouble() * 15))) * backoff;
+                final long runAt = Math.max(quietUntil, now + quietPeriod);
+                VoltDB.instance().schedulePriorityWork(
+                        new Runnable() {
+                            @Override
+                            public void run()
+                            {
+                                m_siteTaskerQueue.offer(new SnapshotTask());
+                            }
+                        },
+                        runAt - now,
+                        0,
+                        TimeUnit.MILLISECONDS);
+                m_quietUntil = runAt + quietPeriod;
             } else {
                 //Schedule it to happen after the quiet period has elapsed
                 VoltDB.instance().schedulePriorityWork(
@@ -383,6 +423,65 @@ public class SnapshotSiteProcessor {
         }
     }
 
+    /**
+     * Called by the site thread after each work unit. Grow the quiet period multiplier if
+     * transactions are waiting in the site queue for longer than the latency budget, shrink
+     * it otherwise, and reset it once the queue is empty.
+     * @return the multiplier to apply to the quiet period
+     */
+    int updateSnapshotBackoff() {
+        if (SNAPSHOT_LATENCY_BUDGET_NANOS <= 0) {
+            return 1;
+        }
+        final QueueDepthTracker queueDepth = m_siteTaskerQueue.getQueueDepthTracker();
+        if (queueDepth == null) {
+            return 1;
+        }
+        int backoff = m_snapshotBackoff;
+        if (queueDepth.getQueueDepth() == 0) {
+            backoff = 1;
+        } else if (queueDepth.getCurrentWaitTime(System.nanoTime()) > SNAPSHOT_LATENCY_BUDGET_NANOS ||
+                queueDepth.getRecentMaxWaitTime() > SNAPSHOT_LATENCY_BUDGET_NANOS) {
+            backoff = Math.min(MAX_SNAPSHOT_BACKOFF, backoff * 2);
+            m_snapshotThrottles++;
+        } else {
+            backoff = Math.max(1, backoff / 2);
+        }
+        m_snapshotBackoff = backoff;
+        return backoff;
+    }
+
+    int getSnapshotThrottles() {
+        return m_snapshotThrottles;
+    }
+
+    /**
+     * Report how much of the site thread's time the snapshot took, for every snapshot only
+     * when the latency budget is set
+     */
+    private void logSnapshotWork(int partitionId) {
+        final boolean budgetEnabled = SNAPSHOT_LATENCY_BUDGET_NANOS > 0;
+        if (!budgetEnabled && !SNAP_LOG.isDebugEnabled()) {
+            return;
+        }
+        final long elapsedNanos = System.nanoTime() - m_snapshotStartNanos;
+        final String message = String.format(
+                "Snapshot work on partition %d took %d ms of the site thread (%.1f%% of %d ms) in %d units, " +
+                "longest unit %d ms, throttled %d times for the latency budget",
+                partitionId,
+                TimeUnit.NANOSECONDS.toMillis(m_snapshotWorkNanos),
+                elapsedNanos > 0 ? (100.0 * m_snapshotWorkNanos) / elapsedNanos : 0.0,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                m_snapshotWorkUnits,
+                TimeUnit.NANOSECONDS.toMillis(m_maxSnapshotWorkNanos),
+                m_snapshotThrottles);
+        if (budgetEnabled) {
+            SNAP_LOG.info(message);
+        } else {
+            SNAP_LOG.debug(message);
+        }
+    }
+
     public void initiateSnapshots(
             SystemProcedureExecutionContext context,
             SnapshotFormat format,
@@ -395,6 +494,12 @@ public class SnapshotSiteProcessor {
         ExecutionSitesCurrentlySnapshotting.add(this);
         final long now = System.currentTimeMillis();
         m_quietUntil = now + 200;
+        m_snapshotBackoff = 1;
+        m_snapshotStartNanos = System.nanoTime();
+        m_snapshotWorkNanos = 0;
+        m_maxSnapshotWorkNanos = 0;
+        m_snapshotWorkUnits = 0;
+        m_snapshotThrottles = 0;
         m_perSiteLastSnapshotSucceded = true;
         m_lastSnapshotTxnId = txnId;
         m_isTruncation = isTruncation;
@@ -601,8 +706,14 @@ public class SnapshotSiteProcessor {
 
 
             // Stream more and add a listener to handle any failures
+            final long workStart = System.nanoTime();
             Pair<ListenableFuture<?>, Boolean> streamResult =
                     m_streamers.get(tableId).streamMore(context, outputBuffers, null);
+            final long workNanos = System.nanoTime() - workStart;
+            m_snapshotWorkNanos += workNanos;
+            m_maxSnapshotWorkNanos = Math.max(m_maxSnapshotWorkNanos, workNanos);
+            m_snapshotWorkUnits++;
+            updateSnapshotBackoff();
             if (streamResult.getFirst() != null) {
                 final ListenableFuture<?> writeFutures = streamResult.getFirst();
                 writeFutures.addListener(new Runnable() {
@@ -652,6 +763,7 @@ public class SnapshotSiteProcessor {
          */
         if (m_snapshotTableTasks.isEmpty()) {
             SNAP_LOG.debug("Finished with tasks");
+            logSnapshotWork(context.getPartitionId());
             // In case this is a non-blocking snapshot, do the post-snapshot tasks here.
             runPostSnapshotTasks(context);
             final ArrayList<SnapshotDataTarget> snapshotTargets = m_snapshotTargets;
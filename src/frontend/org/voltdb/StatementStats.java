@@ -337,7 +337,7 @@ public final class StatementStats {
                                          boolean failed,
                                          long duration,
                                          VoltTable result,
-                                         ParameterSet parameterSet)
+                                         int parameterSetSize)
         {
             if (stmtStats == null) {
                 stmtStats = new ArrayList<>();
@@ -349,11 +349,7 @@ public final class StatementStats {
                 if (result != null) {
                     stmtResultSize = result.getSerializedSize();
                 }
-                int stmtParamSize = 0;
-                if (parameterSet != null) {
-                    stmtParamSize += parameterSet.getSerializedSize();
-                }
-                measuredStmtStats = new MeasuredStmtStats(duration, stmtResultSize, stmtParamSize);
+                measuredStmtStats = new MeasuredStmtStats(duration, stmtResultSize, parameterSetSize);
             }
 
             stmtStats.add(new PerStmtStats(stmtName,
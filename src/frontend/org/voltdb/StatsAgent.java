@@ -154,30 +154,27 @@ public class StatsAgent extends OpsAgent
             new ColumnInfo("ABORTS", VoltType.BIGINT),
             new ColumnInfo("FAILURES", VoltType.BIGINT),
             new ColumnInfo("TRANSACTIONAL", VoltType.TINYINT));
+        // Resolve the columns once, the detail table has a row for every statement of every procedure
+        final int[] sourceColumns = new int[result.getColumnCount()];
+        for (int i = 0; i < sourceColumns.length; i++) {
+            sourceColumns[i] = baseStats[0].getColumnIndex(result.getColumnName(i));
+        }
+        final int statementCol = baseStats[0].getColumnIndex("STATEMENT");
+        final Object[] row = new Object[sourceColumns.length];
         baseStats[0].resetRowPosition();
         while (baseStats[0].advanceRow()) {
-            if (baseStats[0].getString("STATEMENT").equalsIgnoreCase("<ALL>")) {
-                result.addRow(
-                    baseStats[0].getLong("TIMESTAMP"),
-                    baseStats[0].getLong(VoltSystemProcedure.CNAME_HOST_ID),
-                    baseStats[0].getString("HOSTNAME"),
-                    baseStats[0].getLong(VoltSystemProcedure.CNAME_SITE_ID),
-                    baseStats[0].getLong("PARTITION_ID"),
-                    baseStats[0].getString("PROCEDURE"),
-                    baseStats[0].getLong("INVOCATIONS"),
-                    baseStats[0].getLong("TIMED_INVOCATIONS"),
-                    baseStats[0].getLong("MIN_EXECUTION_TIME"),
-                    baseStats[0].getLong("MAX_EXECUTION_TIME"),
-                    baseStats[0].getLong("AVG_EXECUTION_TIME"),
-                    baseStats[0].getLong("MIN_RESULT_SIZE"),
-                    baseStats[0].getLong("MAX_RESULT_SIZE"),
-                    baseStats[0].getLong("AVG_RESULT_SIZE"),
-                    baseStats[0].getLong("MIN_PARAMETER_SET_SIZE"),
-                    baseStats[0].getLong("MAX_PARAMETER_SET_SIZE"),
-                    baseStats[0].getLong("AVG_PARAMETER_SET_SIZE"),
-                    baseStats[0].getLong("ABORTS"),
-                    baseStats[0].getLong("FAILURES"),
-                    (byte) baseStats[0].getLong("TRANSACTIONAL"));
+            if (baseStats[0].getString(statementCol).equalsIgnoreCase("<ALL>")) {
+                for (int i = 0; i < sourceColumns.length; i++) {
+                    VoltType type = result.getColumnType(i);
+                    if (type == VoltType.STRING) {
+                        row[i] = baseStats[0].getString(sourceColumns[i]);
+                    } else if (type == VoltType.TINYINT) {
+                        row[i] = (byte) baseStats[0].getLong(sourceColumns[i]);
+                    } else {
+                        row[i] = baseStats[0].getLong(sourceColumns[i]);
+                    }
+                }
+                result.addRow(row);
             }
         }
         return new VoltTable[] { result };
@@ -193,31 +190,42 @@ public class StatsAgent extends OpsAgent
         }
 
         StatsProcProfTable timeTable = new StatsProcProfTable();
+        final int transactionalCol = baseStats[0].getColumnIndex("TRANSACTIONAL");
+        final int statementCol = baseStats[0].getColumnIndex("STATEMENT");
+        final int procedureCol = baseStats[0].getColumnIndex("PROCEDURE");
+        final int timestampCol = baseStats[0].getColumnIndex("TIMESTAMP");
+        final int partitionIdCol = baseStats[0].getColumnIndex("PARTITION_ID");
+        final int invocationsCol = baseStats[0].getColumnIndex("INVOCATIONS");
+        final int minExecutionTimeCol = baseStats[0].getColumnIndex("MIN_EXECUTION_TIME");
+        final int maxExecutionTimeCol = baseStats[0].getColumnIndex("MAX_EXECUTION_TIME");
+        final int avgExecutionTimeCol = baseStats[0].getColumnIndex("AVG_EXECUTION_TIME");
+        final int failuresCol = baseStats[0].getColumnIndex("FAILURES");
+        final int abortsCol = baseStats[0].getColumnIndex("ABORTS");
         baseStats[0].resetRowPosition();
         while (baseStats[0].advanceRow()) {
             // Skip non-transactional procedures for some of these rollups until
             // we figure out how to make them less confusing.
             // NB: They still show up in the raw PROCEDURE stata.
-            boolean transactional = baseStats[0].getLong("TRANSACTIONAL") == 1;
+            boolean transactional = baseStats[0].getLong(transactionalCol) == 1;
             if (!transactional) {
                 continue;
             }
 
-            if ( ! baseStats[0].getString("STATEMENT").equalsIgnoreCase("<ALL>")) {
+            if ( ! baseStats[0].getString(statementCol).equalsIgnoreCase("<ALL>")) {
                 continue;
             }
-            String pname = baseStats[0].getString("PROCEDURE");
+            String pname = baseStats[0].getString(procedureCol);
 
             timeTable.updateTable(!isReadOnlyProcedure(pname),
-                    baseStats[0].getLong("TIMESTAMP"),
+                    baseStats[0].getLong(timestampCol),
                     pname,
-                    baseStats[0].getLong("PARTITION_ID"),
-                    baseStats[0].getLong("INVOCATIONS"),
-                    baseStats[0].getLong("MIN_EXECUTION_TIME"),
-                    baseStats[0].getLong("MAX_EXECUTION_TIME"),
-                    baseStats[0].getLong("AVG_EXECUTION_TIME"),
-                    baseStats[0].getLong("FAILURES"),
-                    baseStats[0].getLong("ABORTS"));
+                    baseStats[0].getLong(partitionIdCol),
+                    baseStats[0].getLong(invocationsCol),
+                    baseStats[0].getLong(minExecutionTimeCol),
+                    baseStats[0].getLong(maxExecutionTimeCol),
+                    baseStats[0].getLong(avgExecutionTimeCol),
+                    baseStats[0].getLong(failuresCol),
+                    baseStats[0].getLong(abortsCol));
         }
         return new VoltTable[] { timeTable.sortByAverage("EXECUTION_TIME") };
     }
@@ -231,28 +239,37 @@ public class StatsAgent extends OpsAgent
         }
 
         StatsProcInputTable timeTable = new StatsProcInputTable();
+        final int transactionalCol = baseStats[0].getColumnIndex("TRANSACTIONAL");
+        final int statementCol = baseStats[0].getColumnIndex("STATEMENT");
+        final int procedureCol = baseStats[0].getColumnIndex("PROCEDURE");
+        final int partitionIdCol = baseStats[0].getColumnIndex("PARTITION_ID");
+        final int timestampCol = baseStats[0].getColumnIndex("TIMESTAMP");
+        final int invocationsCol = baseStats[0].getColumnIndex("INVOCATIONS");
+        final int minParameterSetSizeCol = baseStats[0].getColumnIndex("MIN_PARAMETER_SET_SIZE");
+        final int maxParameterSetSizeCol = baseStats[0].getColumnIndex("MAX_PARAMETER_SET_SIZE");
+        final int avgParameterSetSizeCol = baseStats[0].getColumnIndex("AVG_PARAMETER_SET_SIZE");
         baseStats[0].resetRowPosition();
         while (baseStats[0].advanceRow()) {
             // Skip non-transactional procedures for some of these rollups until
             // we figure out how to make them less confusing.
             // NB: They still show up in the raw PROCEDURE stata.
-            boolean transactional = baseStats[0].getLong("TRANSACTIONAL") == 1;
+            boolean transactional = baseStats[0].getLong(transactionalCol) == 1;
             if (!transactional) {
                 continue;
             }
 
-            if ( ! baseStats[0].getString("STATEMENT").equalsIgnoreCase("<ALL>")) {
+            if ( ! baseStats[0].getString(statementCol).equalsIgnoreCase("<ALL>")) {
                 continue;
             }
-            String pname = baseStats[0].getString("PROCEDURE");
+            String pname = baseStats[0].getString(procedureCol);
             timeTable.updateTable(!isReadOnlyProcedure(pname),
                     pname,
-                    baseStats[0].getLong("PARTITION_ID"),
-                    baseStats[0].getLong("TIMESTAMP"),
-                    baseStats[0].getLong("INVOCATIONS"),
-                    baseStats[0].getLong("MIN_PARAMETER_SET_SIZE"),
-                    baseStats[0].getLong("MAX_PARAMETER_SET_SIZE"),
-                    baseStats[0].getLong("AVG_PARAMETER_SET_SIZE")
+                    baseStats[0].getLong(partitionIdCol),
+                    baseStats[0].getLong(timestampCol),
+                    baseStats[0].getLong(invocationsCol),
+                    baseStats[0].getLong(minParameterSetSizeCol),
+                    baseStats[0].getLong(maxParameterSetSizeCol),
+                    baseStats[0].getLong(avgParameterSetSizeCol)
                     );
         }
         return new VoltTable[] { timeTable.sortByInput("PROCEDURE_INPUT") };
@@ -269,28 +286,37 @@ public class StatsAgent extends OpsAgent
         }
 
         StatsProcOutputTable timeTable = new StatsProcOutputTable();
+        final int transactionalCol = baseStats[0].getColumnIndex("TRANSACTIONAL");
+        final int statementCol = baseStats[0].getColumnIndex("STATEMENT");
+        final int procedureCol = baseStats[0].getColumnIndex("PROCEDURE");
+        final int partitionIdCol = baseStats[0].getColumnIndex("PARTITION_ID");
+        final int timestampCol = baseStats[0].getColumnIndex("TIMESTAMP");
+        final int invocationsCol = baseStats[0].getColumnIndex("INVOCATIONS");
+        final int minResultSizeCol = baseStats[0].getColumnIndex("MIN_RESULT_SIZE");
+        final int maxResultSizeCol = baseStats[0].getColumnIndex("MAX_RESULT_SIZE");
+        final int avgResultSizeCol = baseStats[0].getColumnIndex("AVG_RESULT_SIZE");
         baseStats[0].resetRowPosition();
         while (baseStats[0].advanceRow()) {
             // Skip non-transactional procedures for some of these rollups until
             // we figure out how to make them less confusing.
             // NB: They still show up in the raw PROCEDURE stata.
-            boolean transactional = baseStats[0].getLong("TRANSACTIONAL") == 1;
+            boolean transactional = baseStats[0].getLong(transactionalCol) == 1;
             if (!transactional) {
                 continue;
             }
 
-            if ( ! baseStats[0].getString("STATEMENT").equalsIgnoreCase("<ALL>")) {
+            if ( ! baseStats[0].getString(statementCol).equalsIgnoreCase("<ALL>")) {
                 continue;
             }
-            String pname = baseStats[0].getString("PROCEDURE");
+            String pname = baseStats[0].getString(procedureCol);
             timeTable.updateTable(!isReadOnlyProcedure(pname),
                     pname,
-                    baseStats[0].getLong("PARTITION_ID"),
-                    baseStats[0].getLong("TIMESTAMP"),
-                    baseStats[0].getLong("INVOCATIONS"),
-                    baseStats[0].getLong("MIN_RESULT_SIZE"),
-                    baseStats[0].getLong("MAX_RESULT_SIZE"),
-                    baseStats[0].getLong("AVG_RESULT_SIZE")
+                    baseStats[0].getLong(partitionIdCol),
+                    baseStats[0].getLong(timestampCol),
+                    baseStats[0].getLong(invocationsCol),
+                    baseStats[0].getLong(minResultSizeCol),
+                    baseStats[0].getLong(maxResultSizeCol),
+                    baseStats[0].getLong(avgResultSizeCol)
                     );
         }
         return new VoltTable[] { timeTable.sortByOutput("PROCEDURE_OUTPUT") };
@@ -577,6 +603,12 @@ public class StatsAgent extends OpsAgent
         case EXPORT:
             stats = collectStats(StatsSelector.EXPORT, interval);
             break;
+        case RESULTCACHE:
+            stats = collectStats(StatsSelector.RESULTCACHE, interval);
+            break;
+        case MPIREADPOOL:
+            stats = collectStats(StatsSelector.MPIREADPOOL, interval);
+            break;
         default:
             // Should have been successfully groomed in collectStatsImpl().  Log something
             // for our information but let the null check below return harmlessly
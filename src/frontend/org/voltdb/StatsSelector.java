@@ -64,5 +64,7 @@ public enum StatsSelector {
     COMMANDLOG,     // return number of outstanding bytes and txns on this node
     IMPORTER,       // synonym as IMPORT for backward compatibility
     IMPORT,
-    EXPORT
+    EXPORT,
+    RESULTCACHE,    // return procedure result cache use
+    MPIREADPOOL     // return occupancy of the multi-partition read-only site pool
 }
@@ -0,0 +1,123 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2019 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.voltdb.client;
+
+import org.voltcore.utils.Bits;
+
+/**
+ * Direct lookup table over the token ring of an elastic hashinator, shared by
+ * {@link HashinatorLite} and the server side ElasticHashinator.
+ *
+ * The hash space is cut into 2^n equal buckets, with at least twice as many buckets as
+ * tokens. Each bucket records the index of the token which covers its first hash. If no
+ * other token starts inside the bucket, every hash of the bucket maps to that token and
+ * no search is needed. Otherwise the entry is stored complemented and the hash is
+ * searched for between that token and the token of the next bucket, which is only a
+ * few tokens on a reasonably even ring.
+ *
+ * The index does not own the token memory, which must stay allocated as long as
+ * the index is used.
+ */
+public final class TokenBucketIndex {
+    private static final int MAX_BUCKET_BITS = 20;
+    // Bucket whose first hash is below the first token
+    private static final int NO_TOKEN = Integer.MIN_VALUE;
+
+    /*
+     * Pointer to an array of integers containing the tokens and partitions. Even values are tokens and odd values
+     * are partition ids.
+     */
+    private final long m_tokens;
+    private final int m_tokenCount;
+    private final int m_bucketShift;
+    // One entry per bucket, plus the index of the last token for the end of the ring
+    private final int[] m_buckets;
+
+    public TokenBucketIndex(long tokens, int tokenCount) {
+        m_tokens = tokens;
+        m_tokenCount = tokenCount;
+        if (tokenCount <= 0) {
+            m_bucketShift = 0;
+            m_buckets = null;
+            return;
+        }
+        final int bucketBits = Math.min(MAX_BUCKET_BITS, 33 - Integer.numberOfLeadingZeros(tokenCount));
+        final int bucketCount = 1 << bucketBits;
+        m_bucketShift = 32 - bucketBits;
+        m_buckets = new int[bucketCount + 1];
+
+        final long bucketWidth = 1L << m_bucketShift;
+        int t = -1;
+        for (int b = 0; b < bucketCount; b++) {
+            final long start = Integer.MIN_VALUE + b * bucketWidth;
+            final long end = start + bucketWidth - 1;
+            while (t + 1 < tokenCount && tokenAt(t + 1) <= start) {
+                t++;
+            }
+            if (t < 0) {
+                m_buckets[b] = NO_TOKEN;
+            } else if (t + 1 < tokenCount && tokenAt(t + 1) <= end) {
+                m_buckets[b] = ~t;
+            } else {
+                m_buckets[b] = t;
+            }
+        }
+        m_buckets[bucketCount] = tokenCount - 1;
+    }
+
+    private int tokenAt(int index) {
+        return Bits.unsafe.getInt(m_tokens + (8 * index));
+    }
+
+    /**
+     * For a given a value hash, find the pointer to the token that corresponds to it. This will be the
+     * first token <= the value hash.
+     */
+    public long getTokenPtr(int hash) {
+        if (m_buckets == null) {
+            return searchTokenPtr(hash, 0, m_tokenCount - 1);
+        }
+        final int bucket = (hash ^ Integer.MIN_VALUE) >>> m_bucketShift;
+        final int entry = m_buckets[bucket];
+        if (entry >= 0) {
+            return m_tokens + (8L * entry);
+        }
+        if (entry == NO_TOKEN) {
+            return searchTokenPtr(hash, 0, m_tokenCount - 1);
+        }
+        final int next = m_buckets[bucket + 1];
+        return searchTokenPtr(hash, ~entry, next >= 0 ? next : ~next);
+    }
+
+    private long searchTokenPtr(int hash, int min, int max) {
+        while (min <= max) {
+            int mid = (min + max) >>> 1;
+            final long midPtr = m_tokens + (8 * mid);
+            int midval = Bits.unsafe.getInt(midPtr);
+
+            if (midval < hash) {
+                min = mid + 1;
+            } else if (midval > hash) {
+                max = mid - 1;
+            } else {
+                return midPtr;
+            }
+        }
+        return m_tokens + (min - 1) * 8;
+    }
+}
@@ -25,11 +25,14 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.voltcore.logging.VoltLogger;
 import org.voltcore.utils.CoreUtils;
@@ -54,8 +57,15 @@ public class PerPartitionTable {
     //The index in loader tables and the PartitionProcessor number
     final int m_partitionId;
     final boolean m_isMP;
-    //Queue for processing pending rows for this table
-    LinkedBlockingQueue<VoltBulkLoaderRow> m_partitionRowQueue;
+    //Queue for processing pending rows for this table. Any number of producers insert rows
+    //without locking, the rows are only removed by the single thread of m_es.
+    final ConcurrentLinkedQueue<VoltBulkLoaderRow> m_partitionRowQueue;
+    //Number of rows in m_partitionRowQueue
+    final AtomicInteger m_queuedRowCount = new AtomicInteger(0);
+    //Bounds the number of queued rows, producers block when the queue is full
+    final Semaphore m_queueCapacity;
+    //Whether a task draining full batches from m_partitionRowQueue is queued or running on m_es
+    final AtomicBoolean m_drainScheduled = new AtomicBoolean(false);
 
     final ExecutorService m_es;
 
@@ -138,7 +148,8 @@ public class PerPartitionTable {
         m_isMP = isMP;
         m_procName = firstLoader.m_procName;
         m_upsert = (byte) (firstLoader.m_upsert ? 1:0);
-        m_partitionRowQueue = new LinkedBlockingQueue<VoltBulkLoaderRow>(minBatchTriggerSize*5);
+        m_partitionRowQueue = new ConcurrentLinkedQueue<VoltBulkLoaderRow>();
+        m_queueCapacity = new Semaphore(minBatchTriggerSize*5);
         m_minBatchTriggerSize = minBatchTriggerSize;
         m_columnInfo = firstLoader.m_colInfo;
         m_partitionedColumnIndex = firstLoader.m_partitionedColumnIndex;
@@ -164,27 +175,43 @@ public class PerPartitionTable {
      }
 
     /**
-     * Synchronized so that when the a single batch is filled up, we only queue one task to
-     * drain the queue. The task will drain the queue until it doesn't contain a single batch.
+     * Called concurrently by any number of threads without locking. Once a batch is filled up,
+     * a single task is queued to drain the queue. The task will drain the queue until it doesn't
+     * contain a single batch.
      */
-    synchronized void insertRowInTable(final VoltBulkLoaderRow nextRow) throws InterruptedException {
-        m_partitionRowQueue.put(nextRow);
-        if (m_partitionRowQueue.size() == m_minBatchTriggerSize) {
-            m_es.execute(new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        while (m_partitionRowQueue.size() >= m_minBatchTriggerSize) {
-                            loadTable(buildTable(), m_table);
-                        }
-                    } catch (Exception e) {
-                        loaderLog.error("Failed to load batch", e);
-                    }
-                }
-            });
+    void insertRowInTable(final VoltBulkLoaderRow nextRow) throws InterruptedException {
+        m_queueCapacity.acquire();
+        m_partitionRowQueue.offer(nextRow);
+        if (m_queuedRowCount.incrementAndGet() >= m_minBatchTriggerSize) {
+            scheduleDrain();
         }
     }
 
+    private void scheduleDrain() {
+        if (m_drainScheduled.compareAndSet(false, true)) {
+            m_es.execute(m_drainTask);
+        }
+    }
+
+    private final Runnable m_drainTask = new Runnable() {
+        @Override
+        public void run() {
+            try {
+                while (m_queuedRowCount.get() >= m_minBatchTriggerSize) {
+                    loadTable(buildTable(), m_table);
+                }
+            } catch (Exception e) {
+                loaderLog.error("Failed to load batch", e);
+            } finally {
+                m_drainScheduled.set(false);
+            }
+            // A producer may have filled a batch after the last check but before the flag was cleared
+            if (m_queuedRowCount.get() >= m_minBatchTriggerSize) {
+                scheduleDrain();
+            }
+        }
+    };
+
     /**
      * Flush all queued rows even if they are smaller than the batch size. This does not
      * guarantee that they will be reinserted if any of them fail. To make sure all rows
@@ -261,8 +288,14 @@ public class PerPartitionTable {
     }
 
     private PartitionProcedureCallback buildTable() {
-        ArrayList<VoltBulkLoaderRow> buf = new ArrayList<VoltBulkLoaderRow>(m_minBatchTriggerSize);
-        m_partitionRowQueue.drainTo(buf, m_minBatchTriggerSize);
+        final int batchSize = m_minBatchTriggerSize;
+        ArrayList<VoltBulkLoaderRow> buf = new ArrayList<VoltBulkLoaderRow>(batchSize);
+        VoltBulkLoaderRow row;
+        while (buf.size() < batchSize && (row = m_partitionRowQueue.poll()) != null) {
+            buf.add(row);
+        }
+        m_queuedRowCount.addAndGet(-buf.size());
+        m_queueCapacity.release(buf.size());
 
         Map<VoltBulkLoader, Long> batchSizes = new HashMap<>();
         ListIterator<VoltBulkLoaderRow> it = buf.listIterator();
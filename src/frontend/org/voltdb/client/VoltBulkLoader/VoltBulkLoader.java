@@ -46,7 +46,10 @@ import com.google_voltpatches.common.collect.ImmutableSortedMap;
  * as long as they share the same Client instance.
  *
  * All instances of VoltBulkLoader using a common Client share a pool of threads
- * dedicated to feeding individual partitions. There is also a thread dedicated
+ * dedicated to feeding individual partitions. Rows are added to a partition's
+ * queue without locking and batches are submitted asynchronously by the thread
+ * of the partition, so insertRow scales with the number of producer threads
+ * until a queue is full. There is also a thread dedicated
  * to processing multi-partition tables. Finally, each instance of
  * VoltBulkLoader has a thread, dedicated to processing failed bulk inserts. If
  * multiple threads are inserting rows into the same VoltBulkLoader instance and
@@ -330,21 +333,27 @@ public class VoltBulkLoader {
             generateError(rowHandle, fieldList, errMsg);
             return;
         }
-        VoltBulkLoaderRow newRow = new VoltBulkLoaderRow(this, rowHandle, fieldList);
         if (m_isMP) {
-            m_partitionTable[m_firstPartitionTable].insertRowInTable(newRow);
+            partitionId = m_firstPartitionTable;
         }
         else {
             try {
                 partitionId = (int)m_clientImpl.getPartitionForParameter(
                         m_partitionColumnType.getValue(), fieldList[m_partitionedColumnIndex]);
-                m_partitionTable[partitionId].insertRowInTable(newRow);
             } catch (VoltTypeException e) {
                 generateError(rowHandle, fieldList, e.getMessage());
                 return;
             }
         }
+        // Count the row before it can be sent, so that the count never goes negative when
+        // the batch holding it completes before this thread returns
         m_outstandingRowCount.incrementAndGet();
+        try {
+            m_partitionTable[partitionId].insertRowInTable(new VoltBulkLoaderRow(this, rowHandle, fieldList));
+        } catch (InterruptedException e) {
+            m_outstandingRowCount.decrementAndGet();
+            throw e;
+        }
     }
 
     /**
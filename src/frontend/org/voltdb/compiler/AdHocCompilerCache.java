@@ -226,6 +226,15 @@ public class AdHocCompilerCache implements Serializable {
         m_planEvictions = 0;
     }
 
+    /**
+     * Discard all the cached plans, for instance when the table sizes
+     * they were planned with are out of date.
+     */
+    public synchronized void clear() {
+        m_literalCache.clear();
+        m_coreCache.clear();
+    }
+
     /**
      * @param sql SQL literal
      * @return full, ready-to-go plan
@@ -0,0 +1,152 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2019 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.voltdb.compiler;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.voltcore.logging.VoltLogger;
+import org.voltdb.StatsAgent;
+import org.voltdb.StatsSelector;
+import org.voltdb.VoltTable;
+
+/**
+ * Table row counts sampled from the TABLE statistics of the local sites, used to plan
+ * ad hoc queries instead of the fixed {@link DatabaseEstimates} defaults.
+ *
+ * The estimate of a table is its largest row count on any local partition, which is the
+ * number of rows a fragment scanning the table reads. Tables smaller than
+ * {@link #MIN_ESTIMATED_TUPLES} are estimated at that size, so that an index scan keeps
+ * costing less than a sequential scan of a small or empty table. The counts are sampled
+ * at most once per refresh interval and the counts used for planning only move when a
+ * table's estimate drifts by the drift factor, which tells the planner to discard the
+ * plans it cached with the old counts.
+ *
+ * Disabled unless PLANNER_LIVE_ESTIMATES_REFRESH_SECONDS is set.
+ */
+public class LiveTableEstimates {
+    private static final VoltLogger compileLog = new VoltLogger("COMPILE");
+
+    static final long MIN_ESTIMATED_TUPLES = 1000;
+
+    private final long m_refreshIntervalMillis;
+    private final double m_driftFactor;
+    private long m_lastRefresh = 0;
+    // Counts the cached plans were made with
+    private Map<String, Long> m_tupleCounts = Collections.emptyMap();
+
+    public LiveTableEstimates() {
+        this(Integer.getInteger("PLANNER_LIVE_ESTIMATES_REFRESH_SECONDS", 0),
+             Double.valueOf(System.getProperty("PLANNER_LIVE_ESTIMATES_DRIFT_FACTOR", "4")));
+    }
+
+    LiveTableEstimates(int refreshIntervalSeconds, double driftFactor) {
+        m_refreshIntervalMillis = TimeUnit.SECONDS.toMillis(refreshIntervalSeconds);
+        m_driftFactor = Math.max(1.0, driftFactor);
+    }
+
+    public boolean isEnabled() {
+        return m_refreshIntervalMillis > 0;
+    }
+
+    /**
+     * Sample the table row counts if the refresh interval has passed.
+     *
+     * @return true if the counts drifted from the ones in use, in which case
+     * plans made with the old counts should be discarded
+     */
+    public synchronized boolean refreshIfDue(StatsAgent statsAgent, long now) {
+        if (!isEnabled() || now - m_lastRefresh < m_refreshIntervalMillis) {
+            return false;
+        }
+        m_lastRefresh = now;
+        VoltTable stats = statsAgent.getStatsAggregate(StatsSelector.TABLE, false, now);
+        if (stats == null) {
+            return false;
+        }
+        return update(sample(stats));
+    }
+
+    /**
+     * Replace the counts in use if any table drifted.
+     * @return true if the counts in use changed
+     */
+    synchronized boolean update(Map<String, Long> sampled) {
+        if (!hasDrifted(m_tupleCounts, sampled, m_driftFactor)) {
+            return false;
+        }
+        if (compileLog.isDebugEnabled()) {
+            compileLog.debug("Table row counts drifted, planning ad hoc queries with " + sampled);
+        }
+        m_tupleCounts = sampled;
+        return true;
+    }
+
+    /**
+     * @return planner estimates with the row counts in use
+     */
+    public synchronized DatabaseEstimates getEstimates() {
+        DatabaseEstimates estimates = new DatabaseEstimates();
+        for (Map.Entry<String, Long> e : m_tupleCounts.entrySet()) {
+            DatabaseEstimates.TableEstimates tableEstimates = estimates.getEstimatesForTable(e.getKey());
+            tableEstimates.minTuples = estimate(e.getValue());
+            tableEstimates.maxTuples = estimate(e.getValue());
+        }
+        return estimates;
+    }
+
+    /**
+     * @return the largest row count of each table over the partitions in the TABLE statistics
+     */
+    static Map<String, Long> sample(VoltTable stats) {
+        Map<String, Long> tupleCounts = new HashMap<>();
+        final int tableNameCol = stats.getColumnIndex("TABLE_NAME");
+        final int tupleCountCol = stats.getColumnIndex("TUPLE_COUNT");
+        stats.resetRowPosition();
+        while (stats.advanceRow()) {
+            String table = stats.getString(tableNameCol);
+            long count = stats.getLong(tupleCountCol);
+            Long previous = tupleCounts.get(table);
+            if (previous == null || previous < count) {
+                tupleCounts.put(table, count);
+            }
+        }
+        return tupleCounts;
+    }
+
+    static long estimate(Long tupleCount) {
+        return tupleCount == null ? MIN_ESTIMATED_TUPLES : Math.max(MIN_ESTIMATED_TUPLES, tupleCount);
+    }
+
+    static boolean hasDrifted(Map<String, Long> current, Map<String, Long> sampled, double driftFactor) {
+        Set<String> tables = new HashSet<>(current.keySet());
+        tables.addAll(sampled.keySet());
+        for (String table : tables) {
+            long before = estimate(current.get(table));
+            long after = estimate(sampled.get(table));
+            if (Math.max(before, after) >= driftFactor * Math.min(before, after) && before != after) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -62,6 +62,9 @@ public class PlannerTool {
 
     private static PlannerStatsCollector m_plannerStats;
 
+    // Table sizes sampled from the TABLE statistics, shared like the plan caches
+    private static final LiveTableEstimates m_liveEstimates = new LiveTableEstimates();
+
     // If -Dlarge_mode_ratio=xx is specified via ant, the value will show up in the environment variables and
     // take higher priority. Otherwise, the value specified via VOLTDB_OPTS will take effect.
     // If the test is started by ant and -Dlarge_mode_ratio is not set, it will take a default value "-1" which
@@ -205,6 +208,14 @@ public class PlannerTool {
                 throw new RuntimeException("Can't plan empty or null SQL.");
             }
 
+            // Plans cached with table sizes that are no longer accurate may be sub-optimal.
+            if (m_liveEstimates.isEnabled()) {
+                final StatsAgent statsAgent = VoltDB.instance().getStatsAgent();
+                if (statsAgent != null && m_liveEstimates.refreshIfDue(statsAgent, System.currentTimeMillis())) {
+                    m_cache.clear();
+                }
+            }
+
             // No caching for forced single partition or forced multi partition SQL,
             // since these options potentially get different plans that may be invalid
             // or sub-optimal in other contexts. Likewise, plans cached from other contexts
@@ -238,7 +249,8 @@ public class PlannerTool {
             String parsedToken = null;
 
             TrivialCostModel costModel = new TrivialCostModel();
-            DatabaseEstimates estimates = new DatabaseEstimates();
+            DatabaseEstimates estimates = m_liveEstimates.isEnabled() ?
+                    m_liveEstimates.getEstimates() : new DatabaseEstimates();
             // This try-with-resources block acquires a global lock on all planning
             // This is required until we figure out how to do parallel planning.
             try (QueryPlanner planner = new QueryPlanner(
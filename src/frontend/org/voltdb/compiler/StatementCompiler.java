@@ -566,6 +566,9 @@ public abstract class StatementCompiler {
         stmt.setNondeterminismdetail("NO CONTENT FOR DEFAULT PROCS");
         stmt.setSeqscancount(plan.countSeqScans());
         stmt.setReplicatedtabledml(!catProc.getReadonly() && table.getIsreplicated());
+        // Tables used, as updateUsageAnnotations() records them for compiled statements
+        stmt.setTablesread(table.getTypeName());
+        stmt.setTablesupdated(catProc.getReadonly() ? "" : table.getTypeName());
 
         // Input Parameters
         // We will need to update the system catalogs with this new information
@@ -733,6 +736,8 @@ public abstract class StatementCompiler {
         stmt.setNondeterminismdetail("NO CONTENT FOR DEFAULT PROCS");
         stmt.setSeqscancount(plan.countSeqScans());
         stmt.setReplicatedtabledml(!newCatProc.getReadonly() && catTable.getIsreplicated());
+        stmt.setTablesread(catTable.getTypeName());
+        stmt.setTablesupdated(newCatProc.getReadonly() ? "" : catTable.getTypeName());
 
         // Input Parameters
         // We will need to update the system catalogs with this new information
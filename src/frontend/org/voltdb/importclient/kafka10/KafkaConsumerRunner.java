@@ -86,15 +86,30 @@ public abstract class KafkaConsumerRunner implements Runnable {
     private final int m_waitSleepMs = 10;
     private final ReentrantLock m_offsetLock = new ReentrantLock();
 
+    //Topic partitions manually assigned to this consumer, null if the partitions are assigned by the consumer group.
+    private final Collection<TopicPartition> m_assignedPartitions;
+
     public KafkaConsumerRunner(ImporterLifecycle lifecycle, KafkaStreamImporterConfig config, Consumer<ByteBuffer, ByteBuffer> consumer) throws Exception {
+        this(lifecycle, config, consumer, null);
+    }
+
+    public KafkaConsumerRunner(ImporterLifecycle lifecycle, KafkaStreamImporterConfig config, Consumer<ByteBuffer, ByteBuffer> consumer,
+            Collection<TopicPartition> assignedPartitions) throws Exception {
         m_lifecycle = lifecycle;
         m_consumer = consumer;
         m_config = config;
+        m_assignedPartitions = assignedPartitions;
         m_lastCommittedOffSets.set(new HashMap<>());
         m_trackerMap.set(new HashMap<>());
     }
 
     protected void subscribe() {
+        if (m_assignedPartitions != null) {
+            //No group rebalance for manually assigned partitions, the offsets are still committed for the group.
+            LOGGER.info("Consumer group " + m_config.getGroupId() + " is assigned with topic/partition" + m_assignedPartitions);
+            m_consumer.assign(new ArrayList<>(m_assignedPartitions));
+            return;
+        }
         m_consumer.subscribe(Arrays.asList(m_config.getTopics().split(",")), new ConsumerRebalanceListener() {
             @Override
             public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
@@ -281,10 +296,11 @@ public abstract class KafkaConsumerRunner implements Runnable {
                             Object params[] = null;
                             String smsg = null;
                             try {
-                                smsg = new String(record.value().array(), StandardCharsets.UTF_8);
                                 if (formatter != null) {
-                                    params = formatter.transform(ByteBuffer.wrap(smsg.getBytes()));
+                                    //The formatter reads the record value in place, the raw message is only needed by the CSV parser.
+                                    params = formatter.transform(record.value());
                                 } else {
+                                    smsg = new String(record.value().array(), StandardCharsets.UTF_8);
                                     params = csvParser.parseLine(smsg);
                                 }
                                 commitTracker.submit(nextOffSet);
@@ -501,26 +517,45 @@ public abstract class KafkaConsumerRunner implements Runnable {
     }
 
     public int getKafkaTopicPartitionCount() {
-        int totalPartitions = 0;
+        List<TopicPartition> partitions = getKafkaTopicPartitions();
+        return partitions == null ? -1 : partitions.size();
+    }
+
+    /**
+     * @return all the partitions of the configured topics, or null if the consumer is paused or shutting down
+     */
+    public List<TopicPartition> getKafkaTopicPartitions() {
+        List<TopicPartition> topicPartitions = new ArrayList<>();
         String[] topics = m_config.getTopics().split(",");
         for (String topic : topics) {
-            int partitions = 0;
-            while (partitions == 0) {
+            List<PartitionInfo> info = null;
+            while (info == null || info.isEmpty()) {
                 try {
-                    List<PartitionInfo> info = m_consumer.partitionsFor(topic);
-                    if (info != null) {
-                        partitions = info.size();
-                    }
+                    info = m_consumer.partitionsFor(topic);
                 } catch (Exception e) {
                     LOGGER.rateLimitedLog(KafkaConstants.LOG_SUPPRESSION_INTERVAL_SECONDS, Level.WARN, e, "Failed to get Kafka partition info");
                 }
                 //paused or shutting down
                 if (m_done.get()) {
-                    return -1;
+                    return null;
                 }
             }
-            totalPartitions += partitions;
+            for (PartitionInfo partitionInfo : info) {
+                topicPartitions.add(new TopicPartition(partitionInfo.topic(), partitionInfo.partition()));
+            }
+        }
+        return topicPartitions;
+    }
+
+    /**
+     * Close the consumer of a runner which has never been started.
+     */
+    protected void close() {
+        try {
+            m_consumer.close();
+        } catch (Exception ignore) {
+            //ignore
         }
-        return totalPartitions;
+        m_consumer = null;
     }
 }
@@ -17,8 +17,10 @@
 package org.voltdb.importclient.kafka10;
 
 import java.nio.ByteBuffer;
+import java.util.Collection;
 
 import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
 import org.voltdb.client.ProcedureCallback;
 import org.voltdb.importer.AbstractImporter;
 import org.voltdb.importer.Invocation;
@@ -29,6 +31,11 @@ public class KafkaInternalConsumerRunner extends KafkaConsumerRunner {
         super(importer, config, consumer);
     }
 
+    public KafkaInternalConsumerRunner(AbstractImporter importer, KafkaStreamImporterConfig config, Consumer<ByteBuffer, ByteBuffer> consumer,
+            Collection<TopicPartition> assignedPartitions) throws Exception {
+        super(importer, config, consumer, assignedPartitions);
+    }
+
     @Override
     public boolean invoke(String rawMessage, long offset, String topic, Object[] params, ProcedureCallback procedureCallback) throws Exception {
         return ((AbstractImporter)m_lifecycle).callProcedure(new Invocation(m_config.getProcedure(topic), params), procedureCallback);
@@ -20,10 +20,14 @@ package org.voltdb.importclient.kafka10;
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -32,6 +36,7 @@ import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.consumer.RoundRobinAssignor;
 import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.config.SaslConfigs;
 import org.apache.kafka.common.serialization.ByteBufferDeserializer;
 import org.voltcore.logging.VoltLogger;
@@ -44,8 +49,13 @@ public class KafkaStreamImporter extends AbstractImporter {
     protected KafkaStreamImporterConfig m_config;
     protected KafkaConsumerRunner m_runner;
 
+    //How often the partition aligned consumers verify that the partition leaders have not moved
+    private static final long ALIGNMENT_CHECK_INTERVAL_SECONDS = Long.getLong("KAFKA_ALIGNMENT_CHECK_INTERVAL_SECONDS", 10);
+
     private ExecutorService m_executorService = null;
     private List<KafkaInternalConsumerRunner> m_consumers;
+    private ScheduledExecutorService m_alignmentChecker = null;
+    private Set<Integer> m_alignedPartitions;
     private final AtomicBoolean m_shutdown = new AtomicBoolean(false);
     private final Object m_lock = new Object();
     public KafkaStreamImporter(KafkaStreamImporterConfig config) {
@@ -70,13 +80,26 @@ public class KafkaStreamImporter extends AbstractImporter {
      * @throws Exception on error
      */
     private KafkaInternalConsumerRunner createConsumerRunner(Properties properties) throws Exception {
+        return createConsumerRunner(properties, null);
+    }
+
+    /**
+     * Create a Kafka consumer and runner.
+     *
+     * @param properties Kafka consumer properties
+     * @param assignedPartitions the topic partitions the consumer is manually assigned to,
+     *                           null if the partitions are assigned by the consumer group
+     * @throws Exception on error
+     */
+    private KafkaInternalConsumerRunner createConsumerRunner(Properties properties,
+            Collection<TopicPartition> assignedPartitions) throws Exception {
 
         ClassLoader previous = Thread.currentThread().getContextClassLoader();
         Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
 
         try {
             Consumer<ByteBuffer, ByteBuffer> consumer = new KafkaConsumer<>(properties);
-            return new KafkaInternalConsumerRunner(this, m_config, consumer);
+            return new KafkaInternalConsumerRunner(this, m_config, consumer, assignedPartitions);
         } finally {
             Thread.currentThread().setContextClassLoader(previous);
         }
@@ -112,11 +135,11 @@ public class KafkaStreamImporter extends AbstractImporter {
         // stopping the importer @stop().
         // Thus sync the block to avoid any concurrent update.
         synchronized(m_lock) {
-            int kafkaPartitions = 0;
+            List<TopicPartition> topicPartitions = null;
             KafkaInternalConsumerRunner theConsumer = null;
             try {
                 theConsumer = createConsumerRunner(props);
-                kafkaPartitions = theConsumer.getKafkaTopicPartitionCount();
+                topicPartitions = theConsumer.getKafkaTopicPartitions();
             } catch (KafkaException ke) {
                 LOGGER.error("Couldn't create Kafka consumer. Please check the configuration paramaters. Error:" + ke.getMessage());
             } catch (Throwable terminate) {
@@ -124,52 +147,142 @@ public class KafkaStreamImporter extends AbstractImporter {
             }
 
             //paused or shutting down
-            if (kafkaPartitions < 1) {
+            if (topicPartitions == null || topicPartitions.isEmpty()) {
                 return;
             }
 
-            int totalConsumerCount = kafkaPartitions;
-            if (m_config.getConsumerCount() > 0) {
-                totalConsumerCount = m_config.getConsumerCount();
+            if (m_config.isPartitionAligned()) {
+                theConsumer.close();
+                if (!startPartitionAlignedConsumers(props, topicPartitions)) {
+                    return;
+                }
+                final List<TopicPartition> allTopicPartitions = topicPartitions;
+                m_alignmentChecker = Executors.newSingleThreadScheduledExecutor();
+                m_alignmentChecker.scheduleWithFixedDelay(() -> checkAlignment(props, allTopicPartitions),
+                        ALIGNMENT_CHECK_INTERVAL_SECONDS, ALIGNMENT_CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+            } else if (!startConsumers(props, theConsumer, topicPartitions.size())) {
+                return;
             }
-            int consumerCount = (int)Math.ceil((double)totalConsumerCount/m_config.getDBHostCount());
-            m_executorService = Executors.newFixedThreadPool(consumerCount);
-            m_consumers = new ArrayList<>();
-            m_consumers.add(theConsumer);
-            if (consumerCount > 1) {
-                try {
-                    for (int i = 1; i < consumerCount; i++) {
-                        if (m_shutdown.get()) {
-                            return;
-                        }
-                        m_consumers.add(createConsumerRunner(props));
+        }
+
+        // After the importer is initialized, insert records in @Statistics IMPORTER to make sure VMC can keep track of the import progress
+        for (String topicName : m_config.getTopics().split("\\s*,\\s*")) {
+            reportInitializedStat(m_config.getProcedure(topicName));
+        }
+    }
+
+    /**
+     * Start the consumers which share the topic partitions through the consumer group.
+     *
+     * @return false if the importer is shutting down
+     */
+    private boolean startConsumers(Properties props, KafkaInternalConsumerRunner theConsumer, int kafkaPartitions) {
+        int totalConsumerCount = kafkaPartitions;
+        if (m_config.getConsumerCount() > 0) {
+            totalConsumerCount = m_config.getConsumerCount();
+        }
+        int consumerCount = (int)Math.ceil((double)totalConsumerCount/m_config.getDBHostCount());
+        m_executorService = Executors.newFixedThreadPool(consumerCount);
+        m_consumers = new ArrayList<>();
+        m_consumers.add(theConsumer);
+        if (consumerCount > 1) {
+            try {
+                for (int i = 1; i < consumerCount; i++) {
+                    if (m_shutdown.get()) {
+                        return false;
                     }
-                } catch (KafkaException ke) {
-                    LOGGER.error("Couldn't create Kafka consumer. Please check the configuration paramaters. Error:" + ke.getMessage());
-                } catch (Throwable terminate) {
-                    LOGGER.error("Couldn't create Kafka consumer. ", terminate);
+                    m_consumers.add(createConsumerRunner(props));
                 }
+            } catch (KafkaException ke) {
+                LOGGER.error("Couldn't create Kafka consumer. Please check the configuration paramaters. Error:" + ke.getMessage());
+            } catch (Throwable terminate) {
+                LOGGER.error("Couldn't create Kafka consumer. ", terminate);
             }
+        }
 
-            if (m_consumers.size() != consumerCount) {
-                for (KafkaInternalConsumerRunner consumer : m_consumers) {
-                    consumer.shutdown();
+        if (m_consumers.size() != consumerCount) {
+            for (KafkaInternalConsumerRunner consumer : m_consumers) {
+                consumer.shutdown();
+            }
+            m_consumers.clear();
+        } else {
+            for (KafkaInternalConsumerRunner consumer : m_consumers) {
+                if (m_shutdown.get()) {
+                    return false;
                 }
-                m_consumers.clear();
-            } else {
-                for (KafkaInternalConsumerRunner consumer : m_consumers) {
-                    if (m_shutdown.get()) {
-                        return;
-                    }
-                    m_executorService.submit(consumer);
+                m_executorService.submit(consumer);
+            }
+        }
+        LOGGER.info("Number of Kafka Consumers on this host:" + consumerCount);
+        return true;
+    }
+
+    /**
+     * Start one consumer for each Kafka partition which maps to a VoltDB partition led by this host,
+     * so that the imported rows are mostly routed to local partition leaders instead of being forwarded
+     * to other hosts. Kafka partition <i>p</i> maps to VoltDB partition <i>p</i> modulo the partition count.
+     *
+     * @return false if the importer is shutting down
+     */
+    private boolean startPartitionAlignedConsumers(Properties props, List<TopicPartition> topicPartitions) {
+        Set<Integer> localPartitions = getLocalLeaderPartitions();
+        int voltPartitions = getPartitionCount();
+        m_alignedPartitions = localPartitions;
+        List<TopicPartition> assigned = new ArrayList<>();
+        for (TopicPartition topicPartition : topicPartitions) {
+            if (localPartitions.contains(topicPartition.partition() % voltPartitions)) {
+                assigned.add(topicPartition);
+            }
+        }
+
+        m_consumers = new ArrayList<>();
+        if (assigned.isEmpty()) {
+            LOGGER.info("No Kafka partitions are aligned with the partition leaders on this host:" + localPartitions);
+            return true;
+        }
+        try {
+            for (TopicPartition topicPartition : assigned) {
+                if (m_shutdown.get()) {
+                    return false;
                 }
+                m_consumers.add(createConsumerRunner(props, Collections.singletonList(topicPartition)));
             }
-            LOGGER.info("Number of Kafka Consumers on this host:" + consumerCount);
+        } catch (KafkaException ke) {
+            LOGGER.error("Couldn't create Kafka consumer. Please check the configuration paramaters. Error:" + ke.getMessage());
+        } catch (Throwable terminate) {
+            LOGGER.error("Couldn't create Kafka consumer. ", terminate);
         }
 
-        // After the importer is initialized, insert records in @Statistics IMPORTER to make sure VMC can keep track of the import progress
-        for (String topicName : m_config.getTopics().split("\\s*,\\s*")) {
-            reportInitializedStat(m_config.getProcedure(topicName));
+        if (m_consumers.size() != assigned.size()) {
+            for (KafkaInternalConsumerRunner consumer : m_consumers) {
+                consumer.close();
+            }
+            m_consumers.clear();
+            return true;
+        }
+        m_executorService = Executors.newFixedThreadPool(m_consumers.size());
+        for (KafkaInternalConsumerRunner consumer : m_consumers) {
+            if (m_shutdown.get()) {
+                return false;
+            }
+            m_executorService.submit(consumer);
+        }
+        LOGGER.info("Kafka partitions aligned with the partition leaders " + localPartitions + " on this host:" + assigned);
+        return true;
+    }
+
+    /**
+     * Restart the partition aligned consumers if the partition leaders on this host have changed,
+     * e.g. after a node failure or a leader migration, so that no Kafka partition is left unconsumed.
+     */
+    private void checkAlignment(Properties props, List<TopicPartition> topicPartitions) {
+        synchronized(m_lock) {
+            if (m_shutdown.get() || getLocalLeaderPartitions().equals(m_alignedPartitions)) {
+                return;
+            }
+            LOGGER.info("Partition leaders on this host have changed, reassigning Kafka partitions");
+            stopConsumers();
+            startPartitionAlignedConsumers(props, topicPartitions);
         }
     }
 
@@ -177,27 +290,35 @@ public class KafkaStreamImporter extends AbstractImporter {
     public void stop() {
         m_shutdown.set(true);
         synchronized(m_lock) {
-            if (m_consumers != null) {
-                for (KafkaInternalConsumerRunner consumer : m_consumers) {
-                    if (consumer != null) {
-                        consumer.shutdown();
-                    }
-                }
-                m_consumers.clear();
+            if (m_alignmentChecker != null) {
+                m_alignmentChecker.shutdownNow();
+                m_alignmentChecker = null;
             }
+            stopConsumers();
+        }
+    }
 
-            if (m_executorService == null) {
-                return;
+    private void stopConsumers() {
+        if (m_consumers != null) {
+            for (KafkaInternalConsumerRunner consumer : m_consumers) {
+                if (consumer != null) {
+                    consumer.shutdown();
+                }
             }
+            m_consumers.clear();
+        }
 
-            //graceful shutdown to allow importers to properly process post shutdown tasks.
-            m_executorService.shutdown();
-            try {
-                m_executorService.awaitTermination(60, TimeUnit.SECONDS);
-            } catch (InterruptedException ignore) {
-            } finally {
-                m_executorService = null;
-            }
+        if (m_executorService == null) {
+            return;
+        }
+
+        //graceful shutdown to allow importers to properly process post shutdown tasks.
+        m_executorService.shutdown();
+        try {
+            m_executorService.awaitTermination(60, TimeUnit.SECONDS);
+        } catch (InterruptedException ignore) {
+        } finally {
+            m_executorService = null;
         }
     }
 }
\ No newline at end of file
@@ -112,6 +112,14 @@ public class KafkaStreamImporterConfig implements ImporterConfig {
     //The total number of consumers for the importer, which are distributed among the hosts.
     private int m_consumerCount;
 
+    /**
+     * <code>m_partitionAligned</code> When set, every host only consumes the Kafka partitions which map to the VoltDB
+     * partitions it leads (Kafka partition modulo VoltDB partition count), with one consumer per Kafka partition.
+     * Producers are expected to partition the topics with the VoltDB hashinator so that most imports execute locally.
+     * Configured via property <code>kafka.partition.aligned</code> Default: false
+     */
+    private boolean m_partitionAligned;
+
     private String m_securityProtocol;
     private String m_saslKerberosServiceName;
     /**
@@ -176,6 +184,7 @@ public class KafkaStreamImporterConfig implements ImporterConfig {
         }
 
         m_consumerCount = parseProperty(properties, ImportDataProcessor.KAFKA10_CONSUMER_COUNT, 0);
+        m_partitionAligned = Boolean.parseBoolean(properties.getProperty(ImportDataProcessor.KAFKA10_PARTITION_ALIGNED, "false").trim());
 
         //host count, will not be missing in the property because is is explicitly set.
         //set default to 1 anyway.
@@ -232,6 +241,7 @@ public class KafkaStreamImporterConfig implements ImporterConfig {
         builder.append("\n\tMaxPollRecords: " + m_maxPollRecords);
         builder.append("\n\tAutoOffsetReset: " + m_autoOffsetReset);
         builder.append("\n\tSessionTimeOut: " + m_sessionTimeOut);
+        builder.append("\n\tPartitionAligned: " + m_partitionAligned);
         builder.append("\n\tURI: " + m_uri);
         builder.append("\n\tProcedures: " + m_procedureMap);
         builder.append("\n\tFormatterBuilder: " + m_formatterBuilderMap);
@@ -364,6 +374,10 @@ public class KafkaStreamImporterConfig implements ImporterConfig {
         return m_consumerCount;
     }
 
+    public boolean isPartitionAligned() {
+        return m_partitionAligned;
+    }
+
     public int getDBHostCount() {
         return m_dbHostCount;
     }
@@ -18,6 +18,7 @@
 package org.voltdb.importer;
 
 import java.net.URI;
+import java.util.Set;
 import java.util.function.Function;
 
 import org.voltcore.logging.Level;
@@ -120,6 +121,25 @@ public abstract class AbstractImporter
         }
     }
 
+    /**
+     * Importers that can route their data by partition may use this to only consume
+     * the data that belongs to the partitions led by this host.
+     *
+     * @return the IDs of the partitions whose leaders currently reside on this host
+     */
+    protected Set<Integer> getLocalLeaderPartitions()
+    {
+        return m_importServerAdapter.getLocalLeaderPartitions();
+    }
+
+    /**
+     * @return the number of partitions in the cluster
+     */
+    protected int getPartitionCount()
+    {
+        return m_importServerAdapter.getPartitionCount();
+    }
+
     /**
      * Called to stop the importer from processing more data.
      */
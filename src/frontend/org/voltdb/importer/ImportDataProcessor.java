@@ -39,6 +39,7 @@ public interface ImportDataProcessor  {
     static final String KAFKA10_FORMATTERS = "import_kafka_formatters";
     static final String VOLTDB_HOST_COUNT = "voltdb.host.count";
     static final String KAFKA10_CONSUMER_COUNT = "kafka.consumer.count";
+    static final String KAFKA10_PARTITION_ALIGNED = "kafka.partition.aligned";
     static final String POLL_TIMEOUT_MS = "poll.timeout.ms";
 
     /**
@@ -19,6 +19,7 @@ package org.voltdb.importer;
 
 import org.voltdb.client.ProcedureCallback;
 
+import java.util.Set;
 import java.util.function.Function;
 
 
@@ -75,4 +76,17 @@ public interface ImporterServerAdapter {
      * @param procName the name of the procedure that the importer was trying to execute
      */
     public void reportInitialized(String importerName, String procName);
+
+    /**
+     * This may be used by importers to align their work with the partition leaders on this host,
+     * so that the invocations they submit can be executed locally.
+     *
+     * @return the IDs of the partitions whose leaders currently reside on this host
+     */
+    public Set<Integer> getLocalLeaderPartitions();
+
+    /**
+     * @return the number of partitions in the cluster, not including the multi-partition initiator
+     */
+    public int getPartitionCount();
 }
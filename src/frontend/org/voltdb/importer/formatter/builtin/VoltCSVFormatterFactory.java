@@ -26,12 +26,17 @@ public class VoltCSVFormatterFactory extends AbstractFormatterFactory {
 
     public static final String[]  SUPER_CVS_PROPS = {"trimunquoted","nowhitespace","blank","nullstring"};
 
+    //parse the records from the source buffers with fewer allocations, see VoltLowAllocationCSVFormatter
+    public static final String LOW_ALLOCATION_PROP = "lowallocation";
 
     @Override
     public Formatter create(String formatName, Properties props) {
         if(useSuperCsv(props)){
             return new VoltSuperCSVFormatter(formatName, props);
         }
+        if (Boolean.parseBoolean(props.getProperty(LOW_ALLOCATION_PROP, "false").trim())) {
+            return new VoltLowAllocationCSVFormatter(formatName, props);
+        }
         return  new VoltCSVFormatter(formatName, props);
     }
 
@@ -0,0 +1,234 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2019 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.voltdb.importer.formatter.builtin;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.voltdb.common.Constants;
+import org.voltdb.importer.formatter.FormatException;
+import org.voltdb.importer.formatter.Formatter;
+
+/**
+ * CSV formatter which tokenizes the record directly from the source <code>ByteBuffer</code>.
+ * Unlike {@link VoltCSVFormatter}, the record is never decoded into a <code>String</code> line and
+ * no per-character <code>StringBuilder</code> is used: the field boundaries are found on the raw
+ * bytes, null markers are recognized on the raw bytes, and only the remaining fields are decoded,
+ * straight from the source array when the field needs no unquoting. A formatter instance reuses its
+ * scratch buffers, so it must not be shared between threads, which holds for the importers.
+ * Each field is still returned as a <code>String</code> in a new array per record, as the
+ * {@link Formatter} API requires.
+ *
+ * <p>The separator, quote and escape characters must be single byte characters. Quotes are handled
+ * as in RFC 4180, a doubled quote or an escaped quote inside a quoted field yields a quote. A trailing
+ * line terminator is not part of the last field.
+ */
+public class VoltLowAllocationCSVFormatter implements Formatter {
+
+    private static final byte NO_CHARACTER = 0;
+    private static final byte[] NULL_BYTES = "NULL".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CSV_NULL_BYTES = Constants.CSV_NULL.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] QUOTED_CSV_NULL_BYTES = Constants.QUOTED_CSV_NULL.getBytes(StandardCharsets.UTF_8);
+
+    private final byte m_separator;
+    private final byte m_quote;
+    private final byte m_escape;
+    private final boolean m_strictQuotes;
+    private final boolean m_ignoreLeadingWhiteSpace;
+
+    // Scratch space for the fields which need unquoting, and for the fields read from direct buffers
+    private byte[] m_field = new byte[128];
+    // Scratch space for the parsed fields, copied into an exact sized array for each record
+    private Object[] m_fields = new Object[16];
+
+    public VoltLowAllocationCSVFormatter(String formatName, Properties prop) {
+        if (!("csv".equalsIgnoreCase(formatName) || "tsv".equalsIgnoreCase(formatName))) {
+            throw new IllegalArgumentException("Invalid format " + formatName + ", choices are either \"csv\" or \"tsv\".");
+        }
+        byte separator = "csv".equalsIgnoreCase(formatName) ? (byte) ',' : (byte) '\t';
+        m_separator = singleByteProperty(prop, "separator", separator);
+        m_quote = singleByteProperty(prop, "quotechar", (byte) '"');
+        m_escape = singleByteProperty(prop, "escape", (byte) '\\');
+        if (m_separator == NO_CHARACTER) {
+            throw new IllegalArgumentException("The separator character must be defined!");
+        }
+        if (m_separator == m_quote || m_separator == m_escape || (m_quote != NO_CHARACTER && m_quote == m_escape)) {
+            throw new IllegalArgumentException("The separator, quote, and escape characters must be different!");
+        }
+
+        String strictQuotesProp = prop.getProperty("strictquotes", "");
+        m_strictQuotes = !strictQuotesProp.isEmpty() && Boolean.parseBoolean(strictQuotesProp);
+        String ignoreLeadingWhiteSpaceProp = prop.getProperty("ignoreleadingwhitespace", "");
+        m_ignoreLeadingWhiteSpace = ignoreLeadingWhiteSpaceProp.isEmpty() || Boolean.parseBoolean(ignoreLeadingWhiteSpaceProp);
+    }
+
+    private static byte singleByteProperty(Properties prop, String name, byte defaultValue) {
+        String value = prop.getProperty(name, "");
+        if (value.isEmpty() || value.length() != 1) {
+            return defaultValue;
+        }
+        char c = value.charAt(0);
+        if (c > 0x7F) {
+            throw new IllegalArgumentException("The " + name + " character must be an ASCII character");
+        }
+        return (byte) c;
+    }
+
+    @Override
+    public Object[] transform(ByteBuffer payload) throws FormatException {
+        if (payload == null) {
+            return null;
+        }
+        final int start = payload.position();
+        int end = payload.limit();
+        while (end > start && (payload.get(end - 1) == '\n' || payload.get(end - 1) == '\r')) {
+            end--;
+        }
+
+        int count = 0;
+        int pos = start;
+        while (true) {
+            // A field is either a range of the payload, or the unquoted bytes accumulated in m_field
+            int fieldStart = pos;
+            int length = 0;
+            boolean copying = false;
+            boolean inQuotes = false;
+            while (pos < end) {
+                byte c = payload.get(pos);
+                if (inQuotes) {
+                    if (c == m_escape && pos + 1 < end && (payload.get(pos + 1) == m_quote || payload.get(pos + 1) == m_escape)) {
+                        length = append(length, payload.get(pos + 1));
+                        pos += 2;
+                    } else if (c == m_quote) {
+                        if (pos + 1 < end && payload.get(pos + 1) == m_quote) {
+                            length = append(length, m_quote);
+                            pos += 2;
+                        } else {
+                            inQuotes = false;
+                            pos++;
+                        }
+                    } else {
+                        length = append(length, c);
+                        pos++;
+                    }
+                } else if (c == m_separator) {
+                    break;
+                } else if (c == m_quote) {
+                    if (!copying) {
+                        length = startCopy(payload, fieldStart, pos);
+                        copying = true;
+                    }
+                    if (m_ignoreLeadingWhiteSpace && isAllWhiteSpace(length)) {
+                        length = 0;
+                    }
+                    inQuotes = true;
+                    pos++;
+                } else if (m_strictQuotes) {
+                    // characters outside of the quotes are ignored
+                    if (!copying) {
+                        length = startCopy(payload, fieldStart, pos);
+                        copying = true;
+                    }
+                    pos++;
+                } else {
+                    if (copying) {
+                        length = append(length, c);
+                    }
+                    pos++;
+                }
+            }
+            if (inQuotes) {
+                throw new FormatException("failed to format, un-terminated quoted field at end of CSV line");
+            }
+
+            if (count == m_fields.length) {
+                m_fields = Arrays.copyOf(m_fields, count * 2);
+            }
+            if (copying) {
+                m_fields[count++] = decode(m_field, 0, length);
+            } else if (payload.hasArray()) {
+                m_fields[count++] = decode(payload.array(), payload.arrayOffset() + fieldStart, pos - fieldStart);
+            } else {
+                length = startCopy(payload, fieldStart, pos);
+                m_fields[count++] = decode(m_field, 0, length);
+            }
+
+            if (pos >= end) {
+                break;
+            }
+            // skip the separator
+            pos++;
+        }
+
+        Object[] fields = Arrays.copyOf(m_fields, count);
+        Arrays.fill(m_fields, 0, count, null);
+        return fields;
+    }
+
+    /**
+     * Copy the bytes of the field read so far into the scratch buffer.
+     * @return the number of bytes in the scratch buffer
+     */
+    private int startCopy(ByteBuffer payload, int from, int to) {
+        int length = 0;
+        for (int i = from; i < to; i++) {
+            length = append(length, payload.get(i));
+        }
+        return length;
+    }
+
+    private int append(int length, byte b) {
+        if (length == m_field.length) {
+            m_field = Arrays.copyOf(m_field, length * 2);
+        }
+        m_field[length] = b;
+        return length + 1;
+    }
+
+    private boolean isAllWhiteSpace(int length) {
+        for (int i = 0; i < length; i++) {
+            if (!Character.isWhitespace(m_field[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String decode(byte[] bytes, int offset, int length) {
+        if (matches(bytes, offset, length, NULL_BYTES)
+                || matches(bytes, offset, length, CSV_NULL_BYTES)
+                || matches(bytes, offset, length, QUOTED_CSV_NULL_BYTES)) {
+            return null;
+        }
+        return new String(bytes, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private static boolean matches(byte[] bytes, int offset, int length, byte[] token) {
+        if (length != token.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (bytes[offset + i] != token[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
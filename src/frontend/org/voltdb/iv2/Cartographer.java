@@ -342,6 +342,21 @@ public class Cartographer extends StatsSource
         return m_iv2Masters.get(partitionId);
     }
 
+    /**
+     * Get the IDs of the SP partitions whose leaders currently reside on this host
+     */
+    public Set<Integer> getLocalLeaderPartitions()
+    {
+        Set<Integer> partitions = new HashSet<Integer>();
+        int localHostId = m_hostMessenger.getHostId();
+        for (Entry<Integer, Long> entry : m_iv2Masters.pointInTimeCache().entrySet()) {
+            if (CoreUtils.getHostIdFromHSId(entry.getValue()) == localHostId) {
+                partitions.add(entry.getKey());
+            }
+        }
+        return partitions;
+    }
+
     /**
      * validate partition id
      * @param partitionId  The partition id
@@ -25,24 +25,37 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
 import org.voltcore.logging.VoltLogger;
 import org.voltcore.utils.CoreUtils;
 import org.voltdb.BackendTarget;
 import org.voltdb.CatalogContext;
 import org.voltdb.LoadedProcedureSet;
 import org.voltdb.StarvationTracker;
+import org.voltdb.dtxn.TransactionState;
 
 /**
  * Provide a pool of MP Read-only sites to do MP RO work.
  * This should be owned by the MpTransactionTaskQueue and expects all operations
  * to be done while holding its lock.
+ *
+ * The pool grows a site at a time while reads are waiting, up to mpiReadPoolSize,
+ * and shuts down sites that stay idle longer than mpiReadPoolIdleTimeout seconds.
+ * Idle sites are only checked when work starts or completes, so a pool with no MP
+ * reads at all keeps its sites until the next one arrives.
+ * mpiReadPoolProcLimit caps how many sites a single procedure can keep busy, so that
+ * a few long running reports leave sites to the other MP reads.
+ * The occupancy of the pool is reported by @Statistics MPIREADPOOL, see MpRoSitePoolStats.
  */
 class MpRoSitePool {
     final static VoltLogger tmLog = new VoltLogger("TM");
 
     static int DEFAULT_MAX_POOL_SIZE = 20;
     static int INITIAL_POOL_SIZE = 1;
+    static int DEFAULT_IDLE_TIMEOUT_SECONDS = 60;
 
     class MpRoSiteContext {
         final private SiteTaskerQueue m_queue;
@@ -50,6 +63,7 @@ class MpRoSitePool {
         final private CatalogContext m_catalogContext;
         final private LoadedProcedureSet m_loadedProcedures;
         final private Thread m_siteThread;
+        private long m_idleSince = System.currentTimeMillis();
 
         MpRoSiteContext(long siteId, BackendTarget backend,
                 CatalogContext context, int partitionId,
@@ -102,6 +116,9 @@ class MpRoSitePool {
 
     //The reference for all sites, used for shutdown
     private List<MpRoSiteContext> m_allSites = Collections.synchronizedList(new ArrayList<>());
+    // Procedure of each busy txnID, and the number of busy sites per procedure
+    private final Map<Long, String> m_busyProcedures = new HashMap<>();
+    private final Map<String, Integer> m_procedureSiteCounts = new HashMap<>();
 
     // Stuff we need to construct new MpRoSites
     private final long m_siteId;
@@ -111,6 +128,8 @@ class MpRoSitePool {
     private CatalogContext m_catalogContext;
     private ThreadFactory m_poolThreadFactory;
     private final int m_poolSize;
+    private final int m_procedureLimit;
+    private final long m_idleTimeoutMillis;
     private volatile boolean m_shuttingDown = false;
 
     MpRoSitePool(
@@ -134,7 +153,13 @@ class MpRoSitePool {
             poolSize = DEFAULT_MAX_POOL_SIZE;
         }
         m_poolSize = poolSize;
+        m_procedureLimit = Math.max(1, Integer.getInteger("mpiReadPoolProcLimit", m_poolSize));
+        m_idleTimeoutMillis = TimeUnit.SECONDS.toMillis(
+                Integer.getInteger("mpiReadPoolIdleTimeout", DEFAULT_IDLE_TIMEOUT_SECONDS));
         tmLog.info("Setting maximum size of MPI read pool to: " + m_poolSize);
+        if (m_procedureLimit < m_poolSize) {
+            tmLog.info("Limiting each procedure to " + m_procedureLimit + " sites of the MPI read pool");
+        }
 
         // Construct the initial pool
         for (int i = 0; i < INITIAL_POOL_SIZE; i++) {
@@ -199,6 +224,28 @@ class MpRoSitePool {
         }
     }
 
+    /**
+     * Has the procedure of this task reached its share of the pool? A task for a
+     * transaction which already has a site (the restart case) is never limited.
+     */
+    boolean isProcedureAtLimit(TransactionTask task)
+    {
+        if (m_procedureLimit >= m_poolSize || m_busySites.containsKey(task.getTxnId())) {
+            return false;
+        }
+        Integer count = m_procedureSiteCounts.get(getProcedureName(task));
+        return count != null && count >= m_procedureLimit;
+    }
+
+    private static String getProcedureName(TransactionTask task)
+    {
+        TransactionState txnState = task.getTransactionState();
+        if (txnState == null || txnState.getInvocation() == null) {
+            return "";
+        }
+        return txnState.getInvocation().getProcName();
+    }
+
     /**
      * Is there a RO site available to do MP RO work?
      */
@@ -239,6 +286,10 @@ class MpRoSitePool {
             }
             site = m_idleSites.pop();
             m_busySites.put(txnId, site);
+            String procName = getProcedureName(task);
+            m_busyProcedures.put(txnId, procName);
+            m_procedureSiteCounts.merge(procName, 1, Integer::sum);
+            shrinkIdleSites(System.currentTimeMillis());
         }
         site.offer(task);
         return true;
@@ -257,17 +308,75 @@ class MpRoSitePool {
         if (site == null) {
             throw new RuntimeException("No busy site for txnID: " + txnId + " found, shouldn't happen.");
         }
+        String procName = m_busyProcedures.remove(txnId);
+        if (procName != null && m_procedureSiteCounts.merge(procName, -1, Integer::sum) <= 0) {
+            m_procedureSiteCounts.remove(procName);
+        }
         // check the catalog versions, only push back onto idle if the catalog hasn't changed
         // otherwise, just let it get garbage collected and let doWork() construct new ones for the
         // pool with the updated catalog.
         if (site.getCatalogCRC() == m_catalogContext.getCatalogCRC()
                 && site.getCatalogVersion() == m_catalogContext.catalogVersion) {
+            site.m_idleSince = System.currentTimeMillis();
             m_idleSites.push(site);
         }
         else {
             site.shutdown();
             m_allSites.remove(site);
         }
+        shrinkIdleSites(System.currentTimeMillis());
+    }
+
+    /**
+     * Shut down the sites which have not been used for the idle timeout, keeping the initial
+     * pool. Idle sites are reused most recently idle first, so the longest idle ones are at
+     * the bottom of the stack.
+     */
+    private void shrinkIdleSites(long now)
+    {
+        while (m_idleSites.size() + m_busySites.size() > INITIAL_POOL_SIZE && !m_idleSites.isEmpty()
+                && now - m_idleSites.peekLast().m_idleSince > m_idleTimeoutMillis) {
+            MpRoSiteContext site = m_idleSites.removeLast();
+            site.shutdown();
+            m_allSites.remove(site);
+            if (tmLog.isDebugEnabled()) {
+                tmLog.debug("Shrinking MPI read pool to " + (m_idleSites.size() + m_busySites.size()) + " sites");
+            }
+        }
+    }
+
+    int getBusySiteCount()
+    {
+        return m_busySites.size();
+    }
+
+    int getIdleSiteCount()
+    {
+        return m_idleSites.size();
+    }
+
+    int getMaxSiteCount()
+    {
+        return m_poolSize;
+    }
+
+    /**
+     * @return a copy of the number of busy sites of each procedure, by procedure name
+     */
+    Map<String, Integer> getBusySitesByProcedure()
+    {
+        return new TreeMap<>(m_procedureSiteCounts);
+    }
+
+    void toString(StringBuilder sb)
+    {
+        sb.append("MpRoSitePool:\n");
+        sb.append("\tBUSY: ").append(m_busySites.size());
+        sb.append(" IDLE: ").append(m_idleSites.size());
+        sb.append(" MAX: ").append(m_poolSize);
+        if (!m_procedureSiteCounts.isEmpty()) {
+            sb.append("\n\tBUSY BY PROCEDURE: ").append(m_procedureSiteCounts);
+        }
     }
 
     void shutdown()
@@ -0,0 +1,88 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2019 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.voltdb.iv2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.voltdb.SiteStatsSource;
+import org.voltdb.VoltTable.ColumnInfo;
+import org.voltdb.VoltType;
+
+/**
+ * Occupancy of the MPI's pool of read-only sites, for @Statistics MPIREADPOOL.
+ * There is a row for each procedure keeping sites of the pool busy, or a single row
+ * with a null procedure when none does. Every row repeats the busy, idle and maximum
+ * number of sites of the whole pool.
+ */
+class MpRoSitePoolStats extends SiteStatsSource {
+    private final MpTransactionTaskQueue m_queue;
+
+    // Occupancy read from the pool by the last collect()
+    private int m_busySites;
+    private int m_idleSites;
+    private int m_maxSites;
+    private Map<String, Integer> m_busySitesByProcedure = Collections.emptyMap();
+
+    MpRoSitePoolStats(long siteId, MpTransactionTaskQueue queue) {
+        super(siteId, false);
+        m_queue = queue;
+    }
+
+    /**
+     * Called by the queue with the lock of the pool held
+     */
+    void collect(MpRoSitePool pool) {
+        m_busySites = pool.getBusySiteCount();
+        m_idleSites = pool.getIdleSiteCount();
+        m_maxSites = pool.getMaxSiteCount();
+        m_busySitesByProcedure = pool.getBusySitesByProcedure();
+    }
+
+    @Override
+    protected void populateColumnSchema(ArrayList<ColumnInfo> columns) {
+        super.populateColumnSchema(columns);
+        columns.add(new ColumnInfo("BUSY_SITES",           VoltType.INTEGER));
+        columns.add(new ColumnInfo("IDLE_SITES",           VoltType.INTEGER));
+        columns.add(new ColumnInfo("MAX_SITES",            VoltType.INTEGER));
+        columns.add(new ColumnInfo("PROCEDURE",            VoltType.STRING));
+        columns.add(new ColumnInfo("PROCEDURE_BUSY_SITES", VoltType.INTEGER));
+    }
+
+    @Override
+    protected void updateStatsRow(Object rowKey, Object rowValues[]) {
+        final Integer procedureSites = rowKey == null ? null : m_busySitesByProcedure.get(rowKey);
+        rowValues[columnNameToIndex.get("BUSY_SITES")] = m_busySites;
+        rowValues[columnNameToIndex.get("IDLE_SITES")] = m_idleSites;
+        rowValues[columnNameToIndex.get("MAX_SITES")] = m_maxSites;
+        rowValues[columnNameToIndex.get("PROCEDURE")] = rowKey;
+        rowValues[columnNameToIndex.get("PROCEDURE_BUSY_SITES")] = procedureSites == null ? 0 : procedureSites;
+        super.updateStatsRow(rowKey, rowValues);
+    }
+
+    @Override
+    protected Iterator<Object> getStatsRowKeyIterator(boolean interval) {
+        m_queue.collectSitePoolStats(this);
+        if (m_busySitesByProcedure.isEmpty()) {
+            return Collections.<Object>singletonList(null).iterator();
+        }
+        return new ArrayList<Object>(m_busySitesByProcedure.keySet()).iterator();
+    }
+}
@@ -106,6 +106,11 @@ public class MpScheduler extends Scheduler
         m_pendingTasks.setMpRoSitePool(sitePool);
     }
 
+    MpRoSitePoolStats createMpRoSitePoolStats(long siteId)
+    {
+        return new MpRoSitePoolStats(siteId, m_pendingTasks);
+    }
+
     void updateCatalog(String diffCmds, CatalogContext context)
     {
         m_pendingTasks.updateCatalog(diffCmds, context);
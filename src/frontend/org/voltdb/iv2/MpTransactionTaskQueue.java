@@ -71,6 +71,16 @@ public class MpTransactionTaskQueue extends TransactionTaskQueue
         m_sitePool.updateSettings(context);
     }
 
+    /**
+     * Read the occupancy of the read pool into the statistics under the lock of the pool
+     */
+    synchronized void collectSitePoolStats(MpRoSitePoolStats stats)
+    {
+        if (m_sitePool != null) {
+            stats.collect(m_sitePool);
+        }
+    }
+
     void shutdown()
     {
         if (m_sitePool != null) {
@@ -194,8 +204,10 @@ public class MpTransactionTaskQueue extends TransactionTaskQueue
         //     - if not, pull it from the backlog, add it to current write set, and queue it
         //     - if so, bail for now
         //   - If not, are there writes outstanding?
-        //     - if not, while there are reads on the backlog and the pool has capacity:
+        //     - if not, while there are reads at the head of the backlog and the pool has capacity:
         //       - pull the read from the backlog, add it to the current read set, and queue it.
+        //         Reads of a procedure which has used up its share of the pool stay in the
+        //         backlog and are passed by later reads, but never by a write.
         //       - bail when done
         //     - if so, bail for now
 
@@ -212,17 +224,19 @@ public class MpTransactionTaskQueue extends TransactionTaskQueue
                 }
             }
             else if (m_currentWrites.isEmpty()) {
-                while (task != null && task.getTransactionState().isReadOnly() &&
-                       m_sitePool.canAcceptWork())
-                {
-                    task = m_backlog.pollFirst();
-                    assert(task.getTransactionState().isReadOnly());
+                Iterator<TransactionTask> iter = m_backlog.iterator();
+                while (iter.hasNext() && m_sitePool.canAcceptWork()) {
+                    task = iter.next();
+                    if (!task.getTransactionState().isReadOnly()) {
+                        break;
+                    }
+                    if (m_sitePool.isProcedureAtLimit(task)) {
+                        continue;
+                    }
+                    iter.remove();
                     m_currentReads.put(task.getTxnId(), task);
                     taskQueueOffer(task);
                     retval = true;
-                    // Prime the pump with the head task, if any.  If empty,
-                    // task will be null
-                    task = m_backlog.peekFirst();
                 }
             }
         }
@@ -294,6 +308,8 @@ public class MpTransactionTaskQueue extends TransactionTaskQueue
     {
         sb.append("MpTransactionTaskQueue:").append("\n");
         sb.append("\tSIZE: ").append(m_backlog.size());
+        sb.append(" READS: ").append(m_currentReads.size());
+        sb.append(" WRITES: ").append(m_currentWrites.size());
         if (!m_backlog.isEmpty()) {
             // Print deduped list of backlog
             Iterator<TransactionTask> it = m_backlog.iterator();
@@ -310,6 +326,10 @@ public class MpTransactionTaskQueue extends TransactionTaskQueue
                 }
             }
         }
+        if (m_sitePool != null) {
+            sb.append("\n");
+            m_sitePool.toString(sb);
+        }
     }
 
     @Override
@@ -20,8 +20,10 @@ package org.voltdb.iv2;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.lang3.ArrayUtils;
 import org.voltcore.logging.Level;
 import org.voltcore.messaging.Mailbox;
 import org.voltcore.utils.RateLimitedLogger;
@@ -65,12 +67,18 @@ abstract public class ProcedureTask extends TransactionTask
 
         try {
             Object[] callerParams = null;
+            ProcedureRunner runner = siteConnection.getProcedureRunner(m_procName);
+            ByteBuffer serializedParams = null;
             /*
              * Parameters are lazily deserialized. We may not find out until now
              * that the parameter set is corrupt
              */
             try {
-                callerParams = task.getParameters();
+                // Single statement procedures may not need the parameters deserialized at all
+                if (runner != null) {
+                    serializedParams = runner.getPassThroughParams(task.getStoredProcedureInvocation());
+                }
+                callerParams = (serializedParams == null ? task.getParameters() : ArrayUtils.EMPTY_OBJECT_ARRAY);
             } catch (RuntimeException e) {
                 Writer result = new StringWriter();
                 PrintWriter pw = new PrintWriter(result);
@@ -87,7 +95,6 @@ abstract public class ProcedureTask extends TransactionTask
             }
 
             ClientResponseImpl cr = null;
-            ProcedureRunner runner = siteConnection.getProcedureRunner(m_procName);
             if (runner == null) {
                 String error =
                         "Procedure " + m_procName + " is not present in the catalog. "  +
@@ -112,7 +119,8 @@ abstract public class ProcedureTask extends TransactionTask
                 runner.setupTransaction(m_txnState);
 
                 // execute the procedure
-                cr = runner.call(callerParams);
+                cr = (serializedParams == null ? runner.call(callerParams) :
+                    runner.callWithSerializedParams(serializedParams));
 
                 // pass in the first value in the hashes array if it's not null
                 Integer hash = null;
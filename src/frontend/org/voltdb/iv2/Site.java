@@ -54,6 +54,7 @@ import org.voltdb.ParameterSet;
 import org.voltdb.PartitionDRGateway;
 import org.voltdb.PostGISBackend;
 import org.voltdb.PostgreSQLBackend;
+import org.voltdb.ProcedureResultCache;
 import org.voltdb.ProcedureRunner;
 import org.voltdb.SiteProcedureConnection;
 import org.voltdb.SiteSnapshotConnection;
@@ -99,6 +100,7 @@ import org.voltdb.messaging.CompleteTransactionMessage;
 import org.voltdb.messaging.FastDeserializer;
 import org.voltdb.messaging.FragmentTaskMessage;
 import org.voltdb.messaging.Iv2InitiateTaskMessage;
+import org.voltdb.planner.ActivePlanRepository;
 import org.voltdb.rejoin.TaskLog;
 import org.voltdb.settings.ClusterSettings;
 import org.voltdb.settings.NodeSettings;
@@ -120,6 +122,9 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
 
     private static final double m_taskLogReplayRatio =
             Double.valueOf(System.getProperty("TASKLOG_REPLAY_RATIO", "0.6"));
+    // Max number of task log entries replayed back to back while there is no live task to run
+    private static final int m_taskLogReplayBatchSize =
+            Math.max(1, Integer.getInteger("TASKLOG_REPLAY_BATCH_SIZE", 32));
 
     // Set to false trigger shutdown.
     volatile boolean m_shouldContinue = true;
@@ -167,6 +172,9 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
     final IndexStats m_indexStats;
     final MemoryStats m_memStats;
 
+    // Cached results of opted in read-only procedures, null unless some procedure opted in
+    final ProcedureResultCache m_resultCache;
+
     // Each execution site manages snapshot using a SnapshotSiteProcessor
     private SnapshotSiteProcessor m_snapshotter;
 
@@ -427,6 +435,10 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
         @Override
         public boolean activateTableStream(final int tableId, TableStreamType type, boolean undo, byte[] predicates)
         {
+            if (type == TableStreamType.ELASTIC_INDEX_CLEAR) {
+                // Deletes the rows moved away by rebalance
+                invalidateResultCache();
+            }
             return m_ee.activateTableStream(tableId, type, undo ? getNextUndoToken(m_currentTxnId) : Long.MAX_VALUE, predicates);
         }
 
@@ -654,11 +666,20 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
                                       m_siteId,
                                       m_indexStats);
             m_memStats = memStats;
+            if (ProcedureResultCache.isEnabled()) {
+                m_resultCache = new ProcedureResultCache(m_siteId, m_partitionId);
+                agent.registerStatsSource(StatsSelector.RESULTCACHE,
+                                          m_siteId,
+                                          m_resultCache);
+            } else {
+                m_resultCache = null;
+            }
         } else {
             // MPI doesn't need to track these stats
             m_tableStats = null;
             m_indexStats = null;
             m_memStats = null;
+            m_resultCache = null;
         }
     }
 
@@ -856,8 +877,10 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
                             task.runForRejoin(getSiteProcedureConnection(), m_rejoinTaskLog);
                         }
                     } else {
-                        //If there are no tasks, do task log work
-                        didWork = replayFromTaskLog(mrm);
+                        //If there are no tasks, do a batch of task log work before checking again
+                        for (int ii = 0; ii < m_taskLogReplayBatchSize && replayFromTaskLog(mrm); ii++) {
+                            didWork = true;
+                        }
                     }
                     if (!didWork) {
                         Thread.yield();
@@ -1113,6 +1136,14 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
             VoltTable data, boolean returnUniqueViolations, boolean shouldDRStream,
             boolean undo, boolean elastic)
     {
+        if (m_resultCache != null) {
+            Table table = getTableByRelativeIndex(tableId);
+            if (table != null) {
+                m_resultCache.tablesWritten(new String[] { table.getTypeName() });
+            } else {
+                m_resultCache.invalidateAll();
+            }
+        }
         // Long.MAX_VALUE is a no-op don't track undo token
         return m_ee.loadTable(tableId, data, txnId,
                 spHandle,
@@ -1130,8 +1161,48 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
         m_ee.setLogLevels(org.voltdb.jni.EELoggers.getLogLevels());
     }
 
+    private Table getTableByRelativeIndex(int tableId) {
+        for (Table table : m_context.tables) {
+            if (table.getRelativeIndex() == tableId) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the result cache of the site, or null if no procedure opted in to result caching
+     */
+    public ProcedureResultCache getProcedureResultCache() {
+        return m_resultCache;
+    }
+
+    private void invalidateResultCache() {
+        if (m_resultCache != null) {
+            m_resultCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Tell the result cache about the tables written by the write fragments of a batch.
+     */
+    private void noteResultCacheWrites(int numFragmentIds, long[] planFragmentIds, boolean[] isWriteFrags) {
+        for (int i = 0; i < numFragmentIds; i++) {
+            if (isWriteFrags != null && !isWriteFrags[i]) {
+                continue;
+            }
+            String[] tablesUpdated = ActivePlanRepository.getTablesUpdatedForFragmentId(planFragmentIds[i]);
+            if (tablesUpdated == null) {
+                m_resultCache.invalidateAll();
+                return;
+            }
+            m_resultCache.tablesWritten(tablesUpdated);
+        }
+    }
+
     @Override
     public void setViewsEnabled(String viewNames, boolean enabled) {
+        invalidateResultCache();
         m_ee.setViewsEnabled(viewNames, enabled);
     }
 
@@ -1227,6 +1298,9 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
             Map<Integer, List<VoltTable>> dependencies, long fragmentId,
             ParameterSet params)
     {
+        if (!txnState.isReadOnly()) {
+            invalidateResultCache();
+        }
         ProcedureRunner runner = m_loadedProcedures.getSysproc(fragmentId);
         return runner.executeSysProcPlanFragment(txnState, dependencies, fragmentId, params);
     }
@@ -1426,6 +1500,9 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
                                       long deletableTxnId,
                                       int maxRowCount)
     {
+        if (m_resultCache != null) {
+            m_resultCache.tablesWritten(new String[] { tableName });
+        }
         return m_ee.deleteMigratedRows(txnid, spHandle, uniqueId,
                 tableName, deletableTxnId, maxRowCount, getNextUndoToken(m_currentTxnId));
     }
@@ -1550,6 +1627,9 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
             boolean traceOn)
                     throws EEException
     {
+        if (m_resultCache != null && !readOnly) {
+            noteResultCacheWrites(numFragmentIds, planFragmentIds, isWriteFrags);
+        }
         return m_ee.executePlanFragments(
                 numFragmentIds,
                 planFragmentIds,
@@ -1603,6 +1683,7 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
     {
         CatalogContext oldContext = m_context;
         m_context = context;
+        invalidateResultCache();
         m_ee.setBatchTimeout(m_context.cluster.getDeployment().get("deployment").
                 getSystemsettings().get("systemsettings").getQuerytimeout());
         m_loadedProcedures.loadProcedures(m_context, isReplay);
@@ -1680,6 +1761,7 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
      */
     public boolean updateSettings(CatalogContext context) {
         m_context = context;
+        invalidateResultCache();
         // here you could bring the timeout settings
         m_loadedProcedures.loadProcedures(m_context);
         m_ee.loadFunctions(m_context);
@@ -1733,6 +1815,7 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
     {
         Preconditions.checkNotNull(hashinator);
         m_hashinator = hashinator;
+        invalidateResultCache();
         m_ee.updateHashinator(hashinator.pGetCurrentConfig());
     }
 
@@ -1780,6 +1863,7 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
     @Override
     public long applyBinaryLog(long txnId, long spHandle, long uniqueId, int remoteClusterId, byte log[])
             throws EEException {
+        invalidateResultCache();
         ByteBuffer paramBuffer = m_ee.getParamBufferForExecuteTask(Integer.BYTES * 2 + log.length);
         paramBuffer.putInt(1);
         paramBuffer.putInt(log.length);
@@ -1791,6 +1875,7 @@ public class Site implements Runnable, SiteProcedureConnection, SiteSnapshotConn
     @Override
     public long applyMpBinaryLog(long txnId, long spHandle, long uniqueId, int remoteClusterId, long remoteTxnUniqueId, byte logs[])
             throws EEException {
+        invalidateResultCache();
         ByteBuffer paramBuffer = m_ee.getParamBufferForExecuteTask(logs.length);
         paramBuffer.put(logs);
         return m_ee.applyBinaryLog(paramBuffer, txnId, spHandle, m_lastCommittedSpHandle, uniqueId,
@@ -100,6 +100,10 @@ public class SiteTaskerQueue
         return m_queueDepthTracker;
     }
 
+    public QueueDepthTracker getQueueDepthTracker() {
+        return m_queueDepthTracker;
+    }
+
     public int size() {
         return m_tasks.size();
     }
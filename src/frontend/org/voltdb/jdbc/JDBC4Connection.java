@@ -45,10 +45,15 @@ public class JDBC4Connection implements java.sql.Connection, IVoltDBConnection
     public static final String COMMIT_THROW_EXCEPTION = "jdbc.committhrowexception";
     public static final String ROLLBACK_THROW_EXCEPTION = "jdbc.rollbackthrowexception";
     public static final String QUERYTIMEOUT_UNIT = "jdbc.querytimeout.unit";
+    // Maximum number of statements of a prepared statement batch in flight at a time. The default of 1
+    // executes them one by one in batch order; with a larger window they may execute in any order.
+    public static final String BATCH_WINDOW = "jdbc.batchwindow";
+    public static final int DEFAULT_BATCH_WINDOW = 1;
 
     protected final JDBC4ClientConnection NativeConnection;
     protected final String User;
     protected TimeUnit queryTimeOutUnit = TimeUnit.SECONDS;
+    protected int batchWindow = DEFAULT_BATCH_WINDOW;
     private boolean isClosed = false;
     private Properties props;
     private boolean autoCommit = true;
@@ -61,6 +66,10 @@ public class JDBC4Connection implements java.sql.Connection, IVoltDBConnection
         if (this.props.getProperty(JDBC4Connection.QUERYTIMEOUT_UNIT, "Seconds").equalsIgnoreCase("milliseconds")) {
             this.queryTimeOutUnit = TimeUnit.MILLISECONDS;
         }
+        String window = this.props.getProperty(JDBC4Connection.BATCH_WINDOW);
+        if (window != null) {
+            this.batchWindow = Math.max(1, Integer.parseInt(window.trim()));
+        }
     }
 
     private void checkClosed() throws SQLException
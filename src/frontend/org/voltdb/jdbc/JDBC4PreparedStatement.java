@@ -94,6 +94,13 @@ public class JDBC4PreparedStatement extends JDBC4Statement implements java.sql.P
         this.parameters = this.Query.getParameterArray();
     }
 
+    // Submits the batch of parameter sets, with at most the connection batch window of them in flight, and returns an array of update counts.
+    @Override
+    public int[] executeBatch() throws SQLException
+    {
+        return this.executeBatch(this.sourceConnection.batchWindow);
+    }
+
     // Clears the current parameter values immediately.
     @Override
     public void clearParameters() throws SQLException
@@ -29,12 +29,15 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.voltdb.VoltTable;
 import org.voltdb.VoltType;
 import org.voltdb.client.ClientResponse;
 import org.voltdb.client.ProcCallException;
+import org.voltdb.client.ProcedureCallback;
 import org.voltdb.parser.JDBCParser;
 import org.voltdb.parser.SQLLexer;
 import org.voltdb.parser.JDBCParser.ParsedCall;
@@ -126,24 +129,7 @@ public class JDBC4Statement implements java.sql.Statement
             {
                 ClientResponse response = e.getClientResponse();
                 if (response != null) {
-                    // Map response status to specific JDBC exception, mostly GENERAL_ERROR except
-                    // for connection problems.
-                    switch (response.getStatus()) {
-                    case ClientResponse.CONNECTION_LOST:
-                        throw SQLError.get(e, SQLError.CONNECTION_CLOSED, "CONNECTION_LOST", e.getMessage());
-                    case ClientResponse.CONNECTION_TIMEOUT:
-                        throw SQLError.get(e, SQLError.CONNECTION_FAILURE, "CONNECTION_TIMEOUT", e.getMessage());
-                    case ClientResponse.SERVER_UNAVAILABLE:
-                        throw SQLError.get(e, SQLError.CONNECTION_FAILURE, "CONNECTION_UNAVAILABLE", e.getMessage());
-                    case ClientResponse.USER_ABORT:
-                        throw SQLError.get(e, SQLError.GENERAL_ERROR, "USER_ABORT", e.getMessage());
-                    case ClientResponse.UNEXPECTED_FAILURE:
-                        throw SQLError.get(e, SQLError.GENERAL_ERROR, "UNEXPECTED_FAILURE", e.getMessage());
-                    case ClientResponse.GRACEFUL_FAILURE:
-                        throw SQLError.get(e, SQLError.GENERAL_ERROR, "GRACEFUL_FAILURE", e.getMessage());
-                    default:
-                        throw SQLError.get(e, SQLError.GENERAL_ERROR, String.format("status=%d", (int)response.getStatus()), e.getMessage());
-                    }
+                    throw getResponseError(e, response, e.getMessage());
                 } else {
                     throw SQLError.get(e, SQLError.GENERAL_ERROR, e.getMessage());
                 }
@@ -154,6 +140,47 @@ public class JDBC4Statement implements java.sql.Statement
             }
         }
 
+        protected void executeAsync(JDBC4ClientConnection connection, ProcedureCallback callback, long timeout, TimeUnit queryTimeOutUnit) throws SQLException {
+            try
+            {
+                boolean queued;
+                if (this.type == TYPE_EXEC) {
+                    queued = connection.executeAsyncWithClientTimeout(callback, this.sql[0], timeout, queryTimeOutUnit, this.parameters);
+                } else {
+                    queued = connection.executeAsyncWithClientTimeout(callback, "@AdHoc", timeout, queryTimeOutUnit, this.sql[0]);
+                }
+                if (!queued) {
+                    throw SQLError.get(SQLError.CONNECTION_FAILURE, "Unable to queue the statement");
+                }
+            }
+            catch(IOException e)
+            {
+                throw SQLError.get(e, SQLError.CONNECTION_FAILURE, e.getMessage());
+            }
+        }
+
+        // Map response status to specific JDBC exception, mostly GENERAL_ERROR except
+        // for connection problems.
+        static SQLException getResponseError(Throwable cause, ClientResponse response, String message)
+        {
+            switch (response.getStatus()) {
+            case ClientResponse.CONNECTION_LOST:
+                return SQLError.get(cause, SQLError.CONNECTION_CLOSED, "CONNECTION_LOST", message);
+            case ClientResponse.CONNECTION_TIMEOUT:
+                return SQLError.get(cause, SQLError.CONNECTION_FAILURE, "CONNECTION_TIMEOUT", message);
+            case ClientResponse.SERVER_UNAVAILABLE:
+                return SQLError.get(cause, SQLError.CONNECTION_FAILURE, "CONNECTION_UNAVAILABLE", message);
+            case ClientResponse.USER_ABORT:
+                return SQLError.get(cause, SQLError.GENERAL_ERROR, "USER_ABORT", message);
+            case ClientResponse.UNEXPECTED_FAILURE:
+                return SQLError.get(cause, SQLError.GENERAL_ERROR, "UNEXPECTED_FAILURE", message);
+            case ClientResponse.GRACEFUL_FAILURE:
+                return SQLError.get(cause, SQLError.GENERAL_ERROR, "GRACEFUL_FAILURE", message);
+            default:
+                return SQLError.get(cause, SQLError.GENERAL_ERROR, String.format("status=%d", (int)response.getStatus()), message);
+            }
+        }
+
         public static boolean isUpdateResult(VoltTable table)
         {
             return ((table.getColumnName(0).length() == 0 || table.getColumnName(0).equals("modified_tuples"))&& table.getRowCount() == 1 && table.getColumnCount() == 1 && table.getColumnType(0) == VoltType.BIGINT);
@@ -414,6 +441,11 @@ public class JDBC4Statement implements java.sql.Statement
     // Submits a batch of commands to the database for execution and if all commands execute successfully, returns an array of update counts.
     @Override
     public int[] executeBatch() throws SQLException
+    {
+        return executeBatchSequentially();
+    }
+
+    private int[] executeBatchSequentially() throws SQLException
     {
         checkClosed();
         closeCurrentResult();
@@ -453,6 +485,91 @@ public class JDBC4Statement implements java.sql.Statement
         return updateCounts;
     }
 
+    /**
+     * Submits the batch asynchronously, keeping at most <code>window</code> commands in flight,
+     * and gathers the update counts as the responses arrive. Commands in flight together may
+     * execute in any order. No more commands are submitted once a command fails, but the ones
+     * already in flight are allowed to finish. As in {@link #executeBatch()}, the driver does not
+     * continue after a failure: the BatchUpdateException carries an entry for each submitted
+     * command, the update count of each one that succeeded and EXECUTE_FAILED for each one that
+     * failed, and none for the commands which were never submitted.
+     */
+    protected int[] executeBatch(int window) throws SQLException
+    {
+        if (window <= 1) {
+            return executeBatchSequentially();
+        }
+        checkClosed();
+        closeCurrentResult();
+        if (batch == null || batch.size() == 0) {
+            return new int[0];
+        }
+
+        final int[] updateCounts = new int[batch.size()];
+        final SQLException[] errors = new SQLException[batch.size()];
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final Semaphore inFlight = new Semaphore(window);
+
+        int submitted = 0;
+        try {
+            for (; submitted < batch.size() && !failed.get(); submitted++) {
+                inFlight.acquire();
+                final int index = submitted;
+                try {
+                    batch.get(index).executeAsync(sourceConnection.NativeConnection, new ProcedureCallback() {
+                        @Override
+                        public void clientCallback(ClientResponse response) {
+                            try {
+                                if (response.getStatus() == ClientResponse.SUCCESS) {
+                                    updateCounts[index] = (int) response.getResults()[0].fetchRow(0).getLong(0);
+                                } else {
+                                    errors[index] = VoltSQL.getResponseError(null, response, response.getStatusString());
+                                    failed.set(true);
+                                }
+                            } catch (RuntimeException e) {
+                                errors[index] = SQLError.get(e);
+                                failed.set(true);
+                            } finally {
+                                inFlight.release();
+                            }
+                        }
+                    }, this.m_timeout, sourceConnection.queryTimeOutUnit);
+                } catch (SQLException x) {
+                    errors[index] = x;
+                    failed.set(true);
+                    inFlight.release();
+                }
+            }
+            // Wait for the responses of all the commands in flight
+            inFlight.acquire(window);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BatchUpdateException(new int[0], SQLError.get(e));
+        } finally {
+            clearBatch();
+        }
+
+        int runningUpdateCount = 0;
+        SQLException firstError = null;
+        for (int i = 0; i < submitted; i++) {
+            if (errors[i] != null) {
+                updateCounts[i] = EXECUTE_FAILED;
+                if (firstError == null) {
+                    firstError = errors[i];
+                } else {
+                    firstError.setNextException(errors[i]);
+                }
+            } else {
+                runningUpdateCount += updateCounts[i];
+            }
+        }
+        if (firstError != null) {
+            throw new BatchUpdateException(Arrays.copyOf(updateCounts, submitted), firstError);
+        }
+        this.lastUpdateCount = runningUpdateCount;
+        return updateCounts;
+    }
+
     protected ResultSet executeQuery(VoltSQL query) throws SQLException
     {
         setCurrentResult(query.execute(this.sourceConnection.NativeConnection, this.m_timeout, this.sourceConnection.queryTimeOutUnit), -1);
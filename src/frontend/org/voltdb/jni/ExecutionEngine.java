@@ -127,8 +127,12 @@ public abstract class ExecutionEngine implements FastDeserializer.Deserializatio
     public static final int ERRORCODE_PROGRESS_UPDATE = 111;
     public static final int ERRORCODE_DECODE_BASE64_AND_DECOMPRESS = 112;
 
-    /** For now sync this value with the value in the EE C++ code to get good stats. */
-    public static final int EE_PLAN_CACHE_SIZE = 1000;
+    /**
+     * Number of deserialized plans the EE of each site caches, passed to the EE when it
+     * is initialized. Applications with more distinct statements than this re-fetch and
+     * re-deserialize plans on every cache miss.
+     */
+    public static final int EE_PLAN_CACHE_SIZE = Math.max(1, Integer.getInteger("EE_PLAN_CACHE_SIZE", 1000));
 
     /** Partition ID */
     protected final int m_partitionId;
@@ -921,7 +925,8 @@ public abstract class ExecutionEngine implements FastDeserializer.Deserializatio
             long tempTableMemory,
             boolean createDrReplicatedStream,
             int compactionThreshold,
-            int exportFlushTimeout);
+            int exportFlushTimeout,
+            int planCacheSize);
 
     /**
      * Sets (or re-sets) all the shared direct byte buffers in the EE.
@@ -181,7 +181,8 @@ public class ExecutionEngineJNI extends ExecutionEngine {
                     tempTableMemory * 1024 * 1024,
                     isLowestSiteId,
                     EE_COMPACTION_THRESHOLD,
-                    exportFlushTimeout);
+                    exportFlushTimeout,
+                    EE_PLAN_CACHE_SIZE);
         checkErrorCode(errorCode);
 
         setupPsetBuffer(smallBufferSize);
@@ -27,11 +27,13 @@ import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayDeque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
 import com.google_voltpatches.common.util.concurrent.ListeningExecutorService;
@@ -46,17 +48,30 @@ import org.voltdb.utils.VoltFile;
  *
  * This class is also responsible for managing the files in the
  * directory large_query_swap under voltdbroot.
+ *
+ * Blocks of a large temp table are stored with consecutive ids and
+ * are usually read back in order by scans, sorts and merges. When a
+ * block is loaded, the block with the next id, if stored, is read
+ * ahead into an off-heap buffer so that loading it does not wait for
+ * the disk. At most LARGE_BLOCK_PREFETCH_COUNT blocks are held this
+ * way, zero disables reading ahead.
  */
 public class LargeBlockManager {
     private static LargeBlockManager INSTANCE = null;
 
     private final static Set<OpenOption> OPEN_OPTIONS = new HashSet<>();
     private final static FileAttribute<Set<PosixFilePermission>> PERMISSIONS;
+    private final static int MAX_PREFETCHED_BLOCKS = Integer.getInteger("LARGE_BLOCK_PREFETCH_COUNT", 4);
 
     private final Path m_largeQuerySwapPath;
     private final Map<BlockId, Path> m_blockPathMap = new HashMap<>();
     private final Object m_accessLock = new Object();
     private final ListeningExecutorService m_es = CoreUtils.getCachedSingleThreadExecutor("LargeBlockManager", 1000);
+    private final ListeningExecutorService m_prefetchEs =
+            CoreUtils.getCachedSingleThreadExecutor("LargeBlockPrefetch", 1000);
+    // Blocks being or already read ahead, and the buffers to read them into
+    private final Map<BlockId, Future<ByteBuffer>> m_prefetchedBlocks = new HashMap<>();
+    private final ArrayDeque<ByteBuffer> m_prefetchBuffers = new ArrayDeque<>();
 
     static {
         OPEN_OPTIONS.add(StandardOpenOption.CREATE_NEW);
@@ -205,13 +220,91 @@ public class LargeBlockManager {
 
             int origPosition = block.position();
             block.position(0);
-            Path blockPath = m_blockPathMap.get(blockId);
-            try (SeekableByteChannel channel = Files.newByteChannel(blockPath)) {
-                channel.read(block);
+            try {
+                ByteBuffer prefetched = takePrefetchedBlock(blockId);
+                if (prefetched != null) {
+                    if (prefetched.remaining() > block.remaining()) {
+                        prefetched.limit(prefetched.position() + block.remaining());
+                    }
+                    block.put(prefetched);
+                    m_prefetchBuffers.push(prefetched);
+                }
+                else {
+                    Path blockPath = m_blockPathMap.get(blockId);
+                    try (SeekableByteChannel channel = Files.newByteChannel(blockPath)) {
+                        channel.read(block);
+                    }
+                }
             }
             finally {
                 block.position(origPosition);
             }
+
+            prefetchBlock(new BlockId(blockId.getSiteId(), blockId.getBlockId() + 1));
+        }
+    }
+
+    /**
+     * Start reading the given block ahead if it is stored, and not already read
+     * ahead, and fewer than the maximum number of blocks are read ahead.
+     * Must be called holding m_accessLock.
+     */
+    private void prefetchBlock(BlockId blockId) {
+        if (m_prefetchedBlocks.size() >= MAX_PREFETCHED_BLOCKS || m_prefetchedBlocks.containsKey(blockId)) {
+            return;
+        }
+        Path blockPath = m_blockPathMap.get(blockId);
+        if (blockPath == null) {
+            return;
+        }
+        ByteBuffer pooled = m_prefetchBuffers.poll();
+        m_prefetchedBlocks.put(blockId, m_prefetchEs.submit(() -> {
+            try (SeekableByteChannel channel = Files.newByteChannel(blockPath)) {
+                int size = (int) channel.size();
+                ByteBuffer buffer = pooled;
+                if (buffer == null || buffer.capacity() < size) {
+                    buffer = ByteBuffer.allocateDirect(size);
+                }
+                buffer.clear();
+                buffer.limit(size);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        break;
+                    }
+                }
+                buffer.flip();
+                return buffer;
+            }
+        }));
+    }
+
+    /**
+     * Get the contents of a block read ahead, waiting for the read to finish.
+     * Must be called holding m_accessLock.
+     * @return the contents of the block, or null if it was not read ahead or the read failed
+     */
+    private ByteBuffer takePrefetchedBlock(BlockId blockId) {
+        Future<ByteBuffer> prefetched = m_prefetchedBlocks.remove(blockId);
+        if (prefetched == null) {
+            return null;
+        }
+        try {
+            return prefetched.get();
+        }
+        catch (ExecutionException e) {
+            // Read the block from its file instead
+            return null;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    // Given package visibility for unit testing purposes.
+    int getPrefetchedBlockCount() {
+        synchronized (m_accessLock) {
+            return m_prefetchedBlocks.size();
         }
     }
 
@@ -226,6 +319,11 @@ public class LargeBlockManager {
                 throw new IllegalArgumentException("Request to release block that is not stored: " + blockId);
             }
 
+            // The block will not be loaded again, let the read ahead finish before deleting the file
+            ByteBuffer prefetched = takePrefetchedBlock(blockId);
+            if (prefetched != null) {
+                m_prefetchBuffers.push(prefetched);
+            }
             Path blockPath = m_blockPathMap.get(blockId);
             Files.delete(blockPath);
             m_blockPathMap.remove(blockId);
@@ -239,6 +337,10 @@ public class LargeBlockManager {
      */
     private void releaseAllBlocks() throws IOException {
         synchronized (m_accessLock) {
+            for (BlockId blockId : new HashSet<>(m_prefetchedBlocks.keySet())) {
+                takePrefetchedBlock(blockId);
+            }
+            m_prefetchBuffers.clear();
             Set<Map.Entry<BlockId, Path>> entries = m_blockPathMap.entrySet();
             while (! entries.isEmpty()) {
                 Map.Entry<BlockId, Path> entry = entries.iterator().next();
@@ -41,6 +41,9 @@ public abstract class ActivePlanRepository {
         /// there is no single statement text---ad hoc queries that differ only by their constants
         /// reuse the same plan.
         String stmtText;
+        /// The tables written by the statement of this fragment, or null if they are not known,
+        /// which is the case for ad hoc queries.
+        String[] tablesUpdated;
 
         FragInfo(Sha1Wrapper key, byte[] plan, long nextId, String stmtText)
         {
@@ -98,6 +101,14 @@ public abstract class ActivePlanRepository {
      * If the plan isn't known to this SPC, load it up. Otherwise addref it.
      */
     public static long loadOrAddRefPlanFragment(byte[] planHash, byte[] plan, String stmtText) {
+        return loadOrAddRefPlanFragment(planHash, plan, stmtText, null);
+    }
+
+    /**
+     * Load or addref a plan of a catalog statement, recording the tables the statement writes.
+     */
+    public static long loadOrAddRefPlanFragment(byte[] planHash, byte[] plan, String stmtText,
+            String[] tablesUpdated) {
         Sha1Wrapper key = new Sha1Wrapper(planHash);
         synchronized (FragInfo.class) {
             FragInfo frag = m_plansByHash.get(key);
@@ -117,6 +128,9 @@ public abstract class ActivePlanRepository {
             if (frag.stmtText == null) {
                 frag.stmtText = stmtText;
             }
+            if (frag.tablesUpdated == null) {
+                frag.tablesUpdated = tablesUpdated;
+            }
 
             // The fragment MAY be in the LRU map.
             // An incremented refCount is a lazy way to keep it safe from eviction
@@ -239,6 +253,17 @@ public abstract class ActivePlanRepository {
         return frag.plan;
     }
 
+    /**
+     * Get the tables written by the statement of a given site-local fragment id.
+     * @return the table names, or null if the fragment is unknown or ad hoc
+     */
+    public static String[] getTablesUpdatedForFragmentId(long fragmentId) {
+        synchronized (FragInfo.class) {
+            FragInfo frag = m_plansById.get(fragmentId);
+            return frag == null ? null : frag.tablesUpdated;
+        }
+    }
+
     @Deprecated
     public static void addFragmentForTest(long fragmentId, byte[] plan, String stmtText) {
         Sha1Wrapper key = new Sha1Wrapper(new byte[20]);
@@ -20,36 +20,49 @@ package org.voltdb.rejoin;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Queue;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.voltcore.logging.VoltLogger;
 import org.voltcore.messaging.Mailbox;
 import org.voltcore.messaging.VoltMessage;
+import org.voltcore.utils.CoreUtils;
 import org.voltcore.utils.DBBPool;
 import org.voltcore.utils.DBBPool.BBContainer;
-import org.voltcore.utils.Pair;
 import org.voltdb.SnapshotSiteProcessor;
+import org.voltdb.VoltDB;
 import org.voltdb.utils.CompressionService;
-import org.voltdb.utils.FixedDBBPool;
+
+import com.google_voltpatches.common.util.concurrent.ListenableFuture;
+import com.google_voltpatches.common.util.concurrent.ListeningExecutorService;
 
 /**
  * Receives snapshot data from a replica. This is used on a rejoining partition.
+ *
+ * Blocks are decompressed by a small pool of threads so that decompression of the next
+ * blocks overlaps with the site loading the current one. The blocks are handed to the site
+ * in the order they were received.
  */
 public class StreamSnapshotDataReceiver extends StreamSnapshotBase
 implements Runnable {
     private static final VoltLogger rejoinLog = new VoltLogger("REJOIN");
 
+    private static final int DECOMPRESSION_THREADS =
+            Math.max(1, Integer.getInteger("REJOIN_DECOMPRESSION_THREADS", 2));
+
     /*
-     * element is a pair of <sourceHSId, blockData>. The hsId should remain the
+     * Decoded blocks in the order they were received. The hsId of a block should remain the
      * same for the length of the data transfer process for this partition.
      */
-    private final LinkedBlockingQueue<StreamSnapshotSink.DecodedContainer> m_queue =
-            new LinkedBlockingQueue<StreamSnapshotSink.DecodedContainer>();
+    private final LinkedBlockingQueue<ListenableFuture<StreamSnapshotSink.DecodedContainer>> m_queue =
+            new LinkedBlockingQueue<ListenableFuture<StreamSnapshotSink.DecodedContainer>>();
 
     private final Mailbox m_mb;
     private final Queue<BBContainer> m_dataBufferPool;
     private final Queue<BBContainer> m_compressedDataBufferPool;
+    private final ListeningExecutorService m_decompressionService;
     private volatile boolean m_closed = false;
 
     private class TrackedDataBBContainer extends BBContainer {
@@ -83,19 +96,32 @@ implements Runnable {
         m_mb = mb;
         m_dataBufferPool = dataPool;
         m_compressedDataBufferPool = compressedDataPool;
+        m_decompressionService =
+                CoreUtils.getListeningExecutorService("Snapshot data decompression", DECOMPRESSION_THREADS);
     }
 
     public void close() {
         m_closed = true;
+        m_decompressionService.shutdown();
     }
 
     /**
      * Get the next message from queue.
      *
-     * @return null if the queue is empty.
+     * @return null if the queue is empty or the next message is still being decompressed.
      */
     public StreamSnapshotSink.DecodedContainer poll() {
-        return m_queue.poll();
+        ListenableFuture<StreamSnapshotSink.DecodedContainer> next = m_queue.peek();
+        if (next == null || !next.isDone()) {
+            return null;
+        }
+        try {
+            return getDecoded(m_queue.poll());
+        } catch (InterruptedException e) {
+            // The future is done, get() doesn't block
+            Thread.currentThread().interrupt();
+            return null;
+        }
     }
 
     /**
@@ -105,85 +131,99 @@ implements Runnable {
      * @throws InterruptedException
      */
     public StreamSnapshotSink.DecodedContainer take() throws InterruptedException {
-        return m_queue.take();
+        return getDecoded(m_queue.take());
     }
 
     public int size() {
         return m_queue.size();
     }
 
-    @Override
-    public void run() {
+    private StreamSnapshotSink.DecodedContainer getDecoded(
+            ListenableFuture<StreamSnapshotSink.DecodedContainer> decoded) throws InterruptedException {
         try {
-            while (true) {
-                BBContainer container = null;
-                BBContainer compressionBufferC = null;
-                ByteBuffer compressionBuffer = null;
-                boolean success = false;
-
-                try {
-                    VoltMessage msg = m_mb.recvBlocking();
-                    if (msg == null) {
-                        // If interrupted, break
-                        break;
-                    }
+            return decoded.get();
+        } catch (ExecutionException e) {
+            if (!m_closed) {
+                rejoinLog.error("Error reading a message from a recovery stream.", e.getCause());
+                VoltDB.crashLocalVoltDB("Error decompressing a block of a recovery stream.", true, e.getCause());
+            }
+            return null;
+        }
+    }
 
-                    assert(msg instanceof RejoinDataMessage);
-                    RejoinDataMessage dataMsg = (RejoinDataMessage) msg;
-                    byte[] data = dataMsg.getData();
-
-                    // Only grab the buffer from the pool after receiving a message from the
-                    // mailbox. If the buffer is grabbed before receiving the message,
-                    // this thread could hold on to a buffer it may not need and other receivers
-                    // will be blocked if the pool has no more buffers left.
-                    container = m_dataBufferPool.poll();
-                    if (container == null) {
-                        container = new TrackedDataBBContainer(DBBPool.allocateDirect(SnapshotSiteProcessor.m_snapshotBufferLength));
-                    }
-                    ByteBuffer messageBuffer = container.b();
-                    messageBuffer.clear();
+    /**
+     * Decompress a block into a data buffer.
+     */
+    private StreamSnapshotSink.DecodedContainer decompress(RejoinDataMessage dataMsg) throws IOException {
+        BBContainer container = null;
+        BBContainer compressionBufferC = null;
+        boolean success = false;
+        try {
+            byte[] data = dataMsg.getData();
+            container = m_dataBufferPool.poll();
+            if (container == null) {
+                container = new TrackedDataBBContainer(DBBPool.allocateDirect(SnapshotSiteProcessor.m_snapshotBufferLength));
+            }
+            ByteBuffer messageBuffer = container.b();
+            messageBuffer.clear();
 
-                    compressionBufferC = m_compressedDataBufferPool.poll();
-                    if (compressionBufferC == null) {
-                        compressionBufferC = new TrackedCompressedDataBBContainer(DBBPool.allocateDirect(SnapshotSiteProcessor.m_snapshotBufferCompressedLen));
-                    }
-                    compressionBuffer = compressionBufferC.b();
-                    compressionBuffer.clear();
-                    compressionBuffer.limit(data.length);
-                    compressionBuffer.put(data);
-                    compressionBuffer.flip();
-                    int uncompressedSize =
-                            CompressionService.decompressBuffer(
-                                    compressionBuffer,
-                                    messageBuffer);
-                    messageBuffer.limit(uncompressedSize);
-                    m_queue.offer(new StreamSnapshotSink.DecodedContainer(dataMsg.m_sourceHSId, dataMsg.getTargetId(), container));
-                    success = true;
-                } finally {
-                    if (!success && container != null) {
-                        container.discard();
-                    }
-                    if (compressionBuffer != null) {
-                        compressionBufferC.discard();
-                    }
-                }
+            compressionBufferC = m_compressedDataBufferPool.poll();
+            if (compressionBufferC == null) {
+                compressionBufferC = new TrackedCompressedDataBBContainer(DBBPool.allocateDirect(SnapshotSiteProcessor.m_snapshotBufferCompressedLen));
             }
-        } catch (IOException e) {
-            /*
-             * Wait until the last message is delivered and then wait some more
-             * so it can be processed so that closed can be set and the
-             * exception suppressed.
-             */
+            ByteBuffer compressionBuffer = compressionBufferC.b();
+            compressionBuffer.clear();
+            compressionBuffer.limit(data.length);
+            compressionBuffer.put(data);
+            compressionBuffer.flip();
+            int uncompressedSize =
+                    CompressionService.decompressBuffer(
+                            compressionBuffer,
+                            messageBuffer);
+            messageBuffer.limit(uncompressedSize);
+            StreamSnapshotSink.DecodedContainer decoded =
+                    new StreamSnapshotSink.DecodedContainer(dataMsg.m_sourceHSId, dataMsg.getTargetId(), container);
+            success = true;
+            return decoded;
+        } finally {
+            if (!success && container != null) {
+                container.discard();
+            }
+            if (compressionBufferC != null) {
+                compressionBufferC.discard();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            VoltMessage msg = m_mb.recvBlocking();
+            if (msg == null) {
+                // If interrupted, break
+                break;
+            }
+
+            assert(msg instanceof RejoinDataMessage);
+            final RejoinDataMessage dataMsg = (RejoinDataMessage) msg;
+
+            // Only grab the buffers from the pools after receiving a message from the
+            // mailbox. If the buffer is grabbed before receiving the message,
+            // this thread could hold on to a buffer it may not need and other receivers
+            // will be blocked if the pool has no more buffers left.
+            ListenableFuture<StreamSnapshotSink.DecodedContainer> decoded;
             try {
-                while (!m_queue.isEmpty()) {
-                    Thread.sleep(50);
-                }
-                Thread.sleep(300);
-            } catch (InterruptedException e2) {}
-            if (m_closed) {
+                decoded = m_decompressionService.submit(new Callable<StreamSnapshotSink.DecodedContainer>() {
+                    @Override
+                    public StreamSnapshotSink.DecodedContainer call() throws IOException {
+                        return decompress(dataMsg);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // closed
                 return;
             }
-            rejoinLog.error("Error reading a message from a recovery stream.", e);
+            m_queue.offer(decoded);
         }
     }
 }
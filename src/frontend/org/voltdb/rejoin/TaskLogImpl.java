@@ -38,9 +38,18 @@ import org.voltdb.utils.PersistentBinaryDeque;
  * A task queue that can overflow to disk.
  */
 public class TaskLogImpl implements TaskLog {
+    private static final VoltLogger rejoinLog = new VoltLogger("REJOIN");
+
     // Overflow limit in MB. Default is 100GB
     private static final long m_overflowLimit =
             Long.parseLong(System.getProperty("REJOIN_OVERFLOW_LIMIT", "102400"));
+    // Task buffers are mostly serialized parameters, compressing them cuts the overflow I/O
+    private static final boolean m_compressOverflow =
+            Boolean.valueOf(System.getProperty("REJOIN_OVERFLOW_COMPRESS", "true"));
+    // Number of buffers read back from the overflow ahead of the site
+    private static final int m_readAheadBuffers =
+            Math.max(1, Integer.getInteger("REJOIN_OVERFLOW_READAHEAD_BUFFERS", 3));
+    private static final long STATS_LOG_INTERVAL_MS = TimeUnit.SECONDS.toMillis(10);
 
     private final int m_partitionId;
     private final BinaryDeque m_buffers;
@@ -58,6 +67,14 @@ public class TaskLogImpl implements TaskLog {
     private final ExecutorService m_es;
     private final String m_cursorId;
 
+    // Stats, only touched by the site thread
+    private long m_tasksLogged = 0;
+    private long m_tasksReplayed = 0;
+    private long m_bytesLogged = 0;
+    private long m_lastStatsTime = System.currentTimeMillis();
+    private long m_lastStatsTasksLogged = 0;
+    private long m_lastStatsTasksReplayed = 0;
+
     public TaskLogImpl(int partitionId, File overflowDir) throws IOException {
         /*
          * Rejoin coordinator should have already cleared everything in the
@@ -79,7 +96,7 @@ public class TaskLogImpl implements TaskLog {
         m_partitionId = partitionId;
         m_cursorId = "TaskLog-" + partitionId;
         m_buffers = new PersistentBinaryDeque(
-                Integer.toString(partitionId), null, overflowDir, new VoltLogger("REJOIN"));
+                Integer.toString(partitionId), null, overflowDir, rejoinLog, m_compressOverflow);
         m_reader = m_buffers.openForRead(m_cursorId);
         m_es = CoreUtils.getSingleThreadExecutor("TaskLog partition " + partitionId);
     }
@@ -97,6 +114,7 @@ public class TaskLogImpl implements TaskLog {
         if (m_tail != null && m_tail.size() > 0 && messageSize > m_bufferHeadroom) {
             // compile the invocation buffer
             m_tail.compile();
+            m_bytesLogged += m_tail.size();
 
             final RejoinTaskBuffer boundTail = m_tail;
             final Runnable r = new Runnable() {
@@ -144,6 +162,7 @@ public class TaskLogImpl implements TaskLog {
         m_bufferHeadroom = m_tail.appendTask(message.m_sourceHSId, message);
         m_taskCount++;
         m_tasksPendingInCurrentTail++;
+        m_tasksLogged++;
     }
 
     private final AtomicInteger m_pendingPolls = new AtomicInteger(0);
@@ -191,8 +210,8 @@ public class TaskLogImpl implements TaskLog {
                 }
             };
 
-            //Always keep three buffers ready to go
-            for (int ii = m_pendingPolls.get() + m_headBuffers.size(); ii < 3; ii++) {
+            //Always keep some buffers ready to go
+            for (int ii = m_pendingPolls.get() + m_headBuffers.size(); ii < m_readAheadBuffers; ii++) {
                 m_pendingPolls.incrementAndGet();
                 m_es.execute(r);
             }
@@ -209,6 +228,7 @@ public class TaskLogImpl implements TaskLog {
                 m_head = null;
             } else {
                 m_taskCount--;
+                m_tasksReplayed++;
             }
         } else if ((m_taskCount - m_tasksPendingInCurrentTail == 0) && m_tail != null) {
             m_tasksPendingInCurrentTail = 0;
@@ -217,6 +237,7 @@ public class TaskLogImpl implements TaskLog {
              * queue yet. set it to head directly, short-circuiting the queue.
              */
             m_tail.compile();
+            m_bytesLogged += m_tail.size();
             if (m_head != null) {
                 scheduleDiscard(m_head);
             }
@@ -225,6 +246,8 @@ public class TaskLogImpl implements TaskLog {
             nextTask = getNextMessage();
         }
 
+        logStatsIfDue(false);
+
         // SPs or fragments that's before the actual snapshot fragment may end up in the task log,
         // because there can be multiple snapshot fragments enabling the task log due to snapshot
         // collision. Need to filter tasks here based on their spHandles.
@@ -235,6 +258,48 @@ public class TaskLogImpl implements TaskLog {
         }
     }
 
+    /**
+     * Periodically log how far behind the replay is, and how fast it is catching up
+     */
+    private void logStatsIfDue(boolean force) {
+        final long now = System.currentTimeMillis();
+        final long elapsed = now - m_lastStatsTime;
+        if (!force && elapsed < STATS_LOG_INTERVAL_MS) {
+            return;
+        }
+        if (rejoinLog.isInfoEnabled() && elapsed > 0) {
+            rejoinLog.info(String.format("Task log of partition %d: %d tasks pending, %d tasks (%.1f MB) logged, "
+                    + "%d tasks replayed, logging %.0f tasks/s, replaying %.0f tasks/s",
+                    m_partitionId, m_taskCount, m_tasksLogged, m_bytesLogged / (1024.0 * 1024.0),
+                    m_tasksReplayed, (m_tasksLogged - m_lastStatsTasksLogged) * 1000.0 / elapsed,
+                    (m_tasksReplayed - m_lastStatsTasksReplayed) * 1000.0 / elapsed));
+        }
+        m_lastStatsTime = now;
+        m_lastStatsTasksLogged = m_tasksLogged;
+        m_lastStatsTasksReplayed = m_tasksReplayed;
+    }
+
+    /**
+     * @return the number of tasks logged since the log was created
+     */
+    public long getTasksLogged() {
+        return m_tasksLogged;
+    }
+
+    /**
+     * @return the number of tasks taken back out of the log
+     */
+    public long getTasksReplayed() {
+        return m_tasksReplayed;
+    }
+
+    /**
+     * @return the uncompressed size of the task buffers logged so far
+     */
+    public long getBytesLogged() {
+        return m_bytesLogged;
+    }
+
     @Override
     public boolean isEmpty() {
         return m_taskCount < 1;
@@ -251,6 +316,7 @@ public class TaskLogImpl implements TaskLog {
             return;
         }
         m_closed = true;
+        logStatsIfDue(true);
         m_es.shutdown();
         if (synchronous) {
             try {
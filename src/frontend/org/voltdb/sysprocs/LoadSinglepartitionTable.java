@@ -21,14 +21,19 @@ import java.util.List;
 import java.util.Map;
 
 import org.voltdb.DependencyPair;
+import org.voltdb.DeprecatedProcedureAPIAccess;
 import org.voltdb.ParameterSet;
 import org.voltdb.SQLStmt;
 import org.voltdb.SystemProcedureExecutionContext;
+import org.voltdb.TableType;
+import org.voltdb.TheHashinator;
 import org.voltdb.VoltDB;
 import org.voltdb.VoltSystemProcedure;
 import org.voltdb.VoltTable;
+import org.voltdb.VoltType;
 import org.voltdb.catalog.Column;
 import org.voltdb.catalog.Constraint;
+import org.voltdb.catalog.Database;
 import org.voltdb.catalog.Procedure;
 import org.voltdb.catalog.Statement;
 import org.voltdb.catalog.Table;
@@ -43,6 +48,10 @@ import org.voltdb.types.ConstraintType;
  */
 public class LoadSinglepartitionTable extends VoltSystemProcedure
 {
+    // Insert batches straight into the table through the EE load path when the input allows it
+    private static final boolean DIRECT_LOAD =
+            Boolean.valueOf(System.getProperty("LOAD_SP_TABLE_DIRECT", "true"));
+
     /**
      * This is a `VoltSystemProcedure` subclass. This comes with some extra work to
      * register system procedure plan fragment, but since this is a very simple
@@ -131,6 +140,13 @@ public class LoadSinglepartitionTable extends VoltSystemProcedure
         // fix any case problems
         tableName = catTable.getTypeName();
 
+        // Inserts of a table with exactly the target schema skip the per row insert plans,
+        // other backends than the EE have no load path
+        if (!isUpsert && DIRECT_LOAD && m_runner.getNonVoltDBBackendIfExists() == null
+                && canLoadDirectly(ctx.getDatabase(), catTable, table)) {
+            return loadDirectly(ctx, catTable, table);
+        }
+
         // check that the schema of the input matches
         int columnCount = table.getColumnCount();
 
@@ -201,6 +217,64 @@ public class LoadSinglepartitionTable extends VoltSystemProcedure
         return executed;
     }
 
+    /**
+     * The EE load path deserializes the rows with the types of the target table, and does
+     * none of the work an insert plan does besides maintaining indexes and views. Only use
+     * it when the input columns are exactly the table columns, and the table has neither
+     * hidden columns nor insert side effects the load path would skip.
+     */
+    static boolean canLoadDirectly(Database db, Table catTable, VoltTable table) {
+        if (catTable.getTabletype() != TableType.PERSISTENT.get()
+                || catTable.getMaterializer() != null
+                || !catTable.getTuplelimitdeletestmt().isEmpty()
+                || (catTable.getIsdred() && db.getIsactiveactivedred())) {
+            return false;
+        }
+        if (catTable.getColumns().size() != table.getColumnCount()) {
+            return false;
+        }
+        for (Column column : catTable.getColumns()) {
+            if (table.getColumnType(column.getIndex()).getValue() != column.getType()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check that every row belongs to this partition, reading only the partition column,
+     * then hand the serialized table to the EE in one call.
+     *
+     * @return The number of rows inserted.
+     * @throws VoltAbortException if a row belongs to another partition or the load fails.
+     */
+    long loadDirectly(SystemProcedureExecutionContext ctx, Table catTable, VoltTable table)
+            throws VoltAbortException
+    {
+        final Column partitionColumn = catTable.getPartitioncolumn();
+        final int partitionIndex = partitionColumn.getIndex();
+        final VoltType partitionType = VoltType.get((byte) partitionColumn.getType());
+        final TheHashinator hashinator = ctx.getCurrentHashinator();
+        final int partitionId = ctx.getPartitionId();
+
+        table.resetRowPosition();
+        while (table.advanceRow()) {
+            Object value = table.get(partitionIndex, partitionType);
+            if (hashinator.getHashedPartitionForParameter(partitionType, value) != partitionId) {
+                throw new VoltAbortException("Mispartitioned tuple in single-partition insert statement.");
+            }
+        }
+        table.resetRowPosition();
+
+        // no unique violations returned, a constraint violation aborts the whole batch
+        DeprecatedProcedureAPIAccess.voltLoadTable(this,
+                ctx.getCluster().getTypeName(),
+                ctx.getDatabase().getTypeName(),
+                catTable.getTypeName(),
+                table, false, true, true);
+        return table.getRowCount();
+    }
+
     /**
      * Execute a set of queued inserts. Ensure each insert successfully
      * inserts one row. Throw exception if not.
@@ -133,6 +133,22 @@ public class SnapshotRestore extends VoltSystemProcedure {
     private static HashSet<String>  m_initializedTableSaveFileNames = new HashSet<String>();
     private static ArrayDeque<TableSaveFile> m_saveFiles = new ArrayDeque<TableSaveFile>();
 
+    // Number of save files of a partitioned table which are read, checked and decompressed
+    // concurrently. The read ahead budget of the host is split among them.
+    private static final int RESTORE_READ_FILES = Math.max(1, Integer.getInteger("SNAPSHOT_RESTORE_READ_FILES", 4));
+    // Bumped by the chunk reader threads when a chunk of any save file may have become available
+    private static final Object m_chunkSignal = new Object();
+    private static long m_chunkSignalCount = 0;
+    private static final Runnable m_chunkListener = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (m_chunkSignal) {
+                m_chunkSignalCount++;
+                m_chunkSignal.notifyAll();
+            }
+        }
+    };
+
     private static volatile DuplicateRowHandler m_duplicateRowHandler = null;
 
     private final static String HASHINATOR_ALL_BAD = "All hashinator snapshots are bad (%s).";
@@ -176,14 +192,17 @@ public class SnapshotRestore extends VoltSystemProcedure {
             relevantPartitionSet.add(part_id);
         }
 
+        final int readFiles = Math.min(RESTORE_READ_FILES, originalHostIds.length);
+        final int readAheadChunks = Math.max(2, (st.getLocalSites().length * 2 + readFiles - 1) / readFiles);
         for (int originalHostId : originalHostIds) {
             final File f = getSaveFileForPartitionedTable(filePath, fileNonce,
                     tableName,
                     originalHostId);
             TableSaveFile savefile = getTableSaveFile(
                     f,
-                    st.getLocalSites().length * 2,
+                    readAheadChunks,
                     relevantPartitionSet.toArray(new Integer[relevantPartitionSet.size()]));
+            savefile.setChunkListener(m_chunkListener);
 
             m_saveFiles.offer(savefile);
             for (int part_id : savefile.getPartitionIds())
@@ -199,32 +218,60 @@ public class SnapshotRestore extends VoltSystemProcedure {
     }
 
     private static synchronized boolean hasMoreChunks() throws IOException {
-        boolean hasMoreChunks = false;
-        while (!hasMoreChunks && m_saveFiles.peek() != null) {
-            TableSaveFile f = m_saveFiles.peek();
-            hasMoreChunks = f.hasMoreChunks();
-            if (!hasMoreChunks) {
-                try {
-                    f.close();
-                } catch (IOException e) {
-                }
-                m_saveFiles.poll();
+        Iterator<TableSaveFile> iter = m_saveFiles.iterator();
+        while (iter.hasNext()) {
+            TableSaveFile f = iter.next();
+            if (f.hasMoreChunks()) {
+                return true;
             }
+            try {
+                f.close();
+            } catch (IOException e) {
+            }
+            iter.remove();
         }
-        return hasMoreChunks;
+        return false;
     }
 
+    /**
+     * Get the next chunk from any of the first RESTORE_READ_FILES save files, so that the
+     * chunk readers of several files read from disk, check and decompress concurrently.
+     * Waits for a chunk if none of them has one ready.
+     */
     private static synchronized BBContainer getNextChunk() throws IOException {
-        BBContainer c = null;
-        while (c == null && m_saveFiles.peek() != null) {
-            TableSaveFile f = m_saveFiles.peek();
-            c = f.getNextChunk();
-            if (c == null) {
-                f.close();
-                m_saveFiles.poll();
+        while (true) {
+            final long signalCount;
+            synchronized (m_chunkSignal) {
+                signalCount = m_chunkSignalCount;
+            }
+            int readingFiles = 0;
+            Iterator<TableSaveFile> iter = m_saveFiles.iterator();
+            while (iter.hasNext() && readingFiles < RESTORE_READ_FILES) {
+                TableSaveFile f = iter.next();
+                BBContainer c = f.pollNextChunk();
+                if (c != null) {
+                    return c;
+                }
+                if (f.hasMoreChunks()) {
+                    readingFiles++;
+                } else {
+                    f.close();
+                    iter.remove();
+                }
+            }
+            if (readingFiles == 0) {
+                return null;
+            }
+            synchronized (m_chunkSignal) {
+                while (signalCount == m_chunkSignalCount) {
+                    try {
+                        m_chunkSignal.wait();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                }
             }
         }
-        return c;
     }
 
     @Override
@@ -437,11 +437,7 @@ public class TableSaveFile
             return c;
         }
 
-        if (m_chunkReader == null) {
-            m_chunkReader = new ChunkReader();
-            m_chunkReaderThread = new Thread(m_chunkReader, "ChunkReader");
-            m_chunkReaderThread.start();
-        }
+        startChunkReader();
 
         Container c = null;
         while (c == null && (m_hasMoreChunks.get() || !m_availableChunks.isEmpty())) {
@@ -464,6 +460,49 @@ public class TableSaveFile
         return c;
     }
 
+    /**
+     * Get the next chunk if one has already been read, without waiting for the
+     * chunk reader. Starts the chunk reader if it hasn't been started.
+     */
+    public synchronized BBContainer pollNextChunk() throws IOException
+    {
+        if (m_chunkReaderException != null) {
+            throw m_chunkReaderException;
+        }
+        if (m_hasMoreChunks.get()) {
+            startChunkReader();
+        }
+        final Container c = m_availableChunks.poll();
+        if (c != null) {
+            m_chunkReads.release();
+        }
+        return c;
+    }
+
+    /**
+     * Set a callback run by the chunk reader thread, without holding any lock, every
+     * time a chunk may have become available or the file has been read to the end.
+     * Must be set before the first chunk is requested.
+     */
+    public void setChunkListener(Runnable chunkListener) {
+        m_chunkListener = chunkListener;
+    }
+
+    private void startChunkReader() {
+        if (m_chunkReader == null) {
+            m_chunkReader = new ChunkReader();
+            m_chunkReaderThread = new Thread(m_chunkReader, "ChunkReader");
+            m_chunkReaderThread.start();
+        }
+    }
+
+    private void notifyChunkListener() {
+        final Runnable chunkListener = m_chunkListener;
+        if (chunkListener != null) {
+            chunkListener.run();
+        }
+    }
+
     public synchronized boolean hasMoreChunks() throws IOException
     {
         if (m_chunkReaderException != null) {
@@ -520,6 +559,7 @@ public class TableSaveFile
 
     private ChunkReader m_chunkReader = null;
     private Thread m_chunkReaderThread = null;
+    private volatile Runnable m_chunkListener = null;
     private IOException m_chunkReaderException = null;
 
     /**
@@ -779,6 +819,7 @@ public class TableSaveFile
                     }
                 } finally {
                     if (c != null) c.discard();
+                    notifyChunkListener();
                 }
             }
             fileInputBufferC.discard();
@@ -1042,6 +1083,7 @@ public class TableSaveFile
                     }
                 } finally {
                     if (c != null) c.discard();
+                    notifyChunkListener();
                 }
             }
             fileInputBufferC.discard();
@@ -1080,6 +1122,7 @@ public class TableSaveFile
                     } catch (IOException e) {
                     }
                 }
+                notifyChunkListener();
             }
         }
 
@@ -37,7 +37,8 @@ import com.google_voltpatches.common.collect.HashBiMap;
 /**
  *
  * This is a single thread reader which feeds the lines after validating syntax
- * to CSVDataLoader.
+ * to CSVDataLoader. Several readers can feed the same CSVDataLoader, each reading
+ * its own range of the file, see {@link CSVFileSplitter}.
  *
  */
 class CSVFileReader implements Runnable {
@@ -58,12 +59,16 @@ class CSVFileReader implements Runnable {
     static AtomicLong m_totalLineCount = new AtomicLong(0);
     static CSVLoader.CSVConfig m_config = null;
     static Client m_csvClient = null;
-    static ICsvListReader m_listReader = null;
     long m_parsingTime = 0;
     private static final Map<VoltType, String> m_blankStrings = new EnumMap<VoltType, String>(VoltType.class);
     private static final VoltLogger m_log = new VoltLogger("CSVLOADER");
     private final CSVDataLoader m_loader;
     private final BulkLoaderErrorHandler m_errHandler;
+    private final ICsvListReader m_listReader;
+    // Number of lines in the file before the range read by this reader
+    private final long m_lineOffset;
+    // Number of lines of the file seen by this reader, including m_lineOffset
+    private long m_lineCount = 0;
     private final VoltType[] m_columnTypes;
     private final int m_columnCount;
     private int headerlen;
@@ -81,23 +86,32 @@ class CSVFileReader implements Runnable {
         m_blankStrings.put(VoltType.VARBINARY, "");
     }
 
-    public static void initializeReader(CSVLoader.CSVConfig config, Client csvClient, ICsvListReader reader) {
+    public static void initializeReader(CSVLoader.CSVConfig config, Client csvClient) {
         m_config = config;
         m_csvClient = csvClient;
-        m_listReader = reader;
+        m_totalRowCount.set(0);
+        m_totalLineCount.set(0);
     }
 
-    public CSVFileReader(CSVDataLoader loader, BulkLoaderErrorHandler errorHandler)    {
+    public CSVFileReader(CSVDataLoader loader, BulkLoaderErrorHandler errorHandler, ICsvListReader listReader) {
+        this(loader, errorHandler, listReader, 0);
+    }
+
+    public CSVFileReader(CSVDataLoader loader, BulkLoaderErrorHandler errorHandler, ICsvListReader listReader,
+            long lineOffset) {
         m_loader = loader;
         m_errHandler = errorHandler;
+        m_listReader = listReader;
+        m_lineOffset = lineOffset;
         m_columnTypes = m_loader.getColumnTypes();
         m_columnCount = m_columnTypes.length;
     }
 
-    @Override
-    public void run() {
-        List<String> lineList;
-        //if header option is true, check whether csv first line is valid
+    /**
+     * If the header option is true, check whether the first line of the csv file is valid.
+     * Must be called on the reader of the beginning of the file before any reader runs.
+     */
+    void readHeader() {
         if (m_config.header) {
             if (!checkHeader()) {
                 m_log.error("In the CSV file " + m_config.file + ", the header "+ m_listReader.getUntokenizedRow() +" does not match "
@@ -105,26 +119,47 @@ class CSVFileReader implements Runnable {
                 System.exit(-1);
             }
         }
+    }
+
+    /**
+     * Use the column mapping of the header read by <code>first</code>.
+     */
+    void copyHeader(CSVFileReader first) {
+        headerlen = first.headerlen;
+        order = first.order;
+    }
+
+    void closeListReader() {
+        try {
+            m_listReader.close();
+        } catch (Exception ex) {
+            //Do nothing here.
+        }
+    }
 
-        while ((m_config.limitrows-- > 0)) {
+    @Override
+    public void run() {
+        List<String> lineList;
+        // --limitrows can't be used with several readers, which must not share the counter
+        while (m_config.readers > 1 || m_config.limitrows-- > 0) {
             if (m_errHandler.hasReachedErrorLimit()) {
                 break;
             }
 
             try {
-                //Initial setting of m_totalLineCount
+                //Initial setting of m_lineCount
                 if (m_listReader.getLineNumber() == 0) {
-                    m_totalLineCount.set(m_config.skip);
+                    m_lineCount = m_lineOffset + m_config.skip;
                 } else {
-                    m_totalLineCount.set(m_listReader.getLineNumber());
+                    m_lineCount = m_lineOffset + m_listReader.getLineNumber();
                 }
                 long st = System.nanoTime();
                 lineList = m_listReader.read();
                 long end = System.nanoTime();
                 m_parsingTime += (end - st);
                 if (lineList == null) {
-                    if (m_totalLineCount.get() > m_listReader.getLineNumber()) {
-                        m_totalLineCount.set(m_listReader.getLineNumber());
+                    if (m_lineCount > m_lineOffset + m_listReader.getLineNumber()) {
+                        m_lineCount = m_lineOffset + m_listReader.getLineNumber();
                     }
                     break;
                 }
@@ -140,7 +175,7 @@ class CSVFileReader implements Runnable {
                 if ((lineCheckResult = checkparams_trimspace_reorder(lineValues, reorderValues)) != null) {
                     final RowWithMetaData metaData
                             = new RowWithMetaData(m_listReader.getUntokenizedRow(),
-                                    m_totalLineCount.get() + 1);
+                                    m_lineCount + 1);
                     if (m_errHandler.handleError(metaData, null, lineCheckResult)) {
                         break;
                     }
@@ -149,14 +184,14 @@ class CSVFileReader implements Runnable {
 
                 RowWithMetaData lineData
                         = new RowWithMetaData(m_listReader.getUntokenizedRow(),
-                                m_listReader.getLineNumber());
+                                m_lineOffset + m_listReader.getLineNumber());
                 m_loader.insertRow(lineData, reorderValues);
             } catch (SuperCsvException e) {
                 //Catch rows that can not be read by superCSV m_listReader.
                 // e.g. items without quotes when strictquotes is enabled.
                 final RowWithMetaData metaData
                         = new RowWithMetaData(m_listReader.getUntokenizedRow(),
-                                m_totalLineCount.get() + 1);
+                                m_lineCount + 1);
                 if (m_errHandler.handleError(metaData, null, e.getMessage())) {
                     break;
                 }
@@ -169,14 +204,10 @@ class CSVFileReader implements Runnable {
             }
         }
 
-        //Now wait for processors to see endOfData and count down. After that drain to finish all callbacks
-        try {
-            m_log.debug("Waiting for CSVDataLoader to finish.");
-            m_loader.close();
-            m_log.debug("CSVDataLoader Done.");
-        } catch (Exception ex) {
-            m_log.warn("Stopped processing because of connection error. "
-                    + "A report will be generated with what we processed so far. Error: " + ex);
+        //The last line seen by any reader is the number of lines discovered in the file
+        long lineCount = m_totalLineCount.get();
+        while (lineCount < m_lineCount && !m_totalLineCount.compareAndSet(lineCount, m_lineCount)) {
+            lineCount = m_totalLineCount.get();
         }
     }
 
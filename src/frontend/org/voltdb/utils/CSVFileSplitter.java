@@ -0,0 +1,265 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2019 VoltDB Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with VoltDB.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.voltdb.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.voltcore.utils.CoreUtils;
+
+import com.google_voltpatches.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Splits a CSV file into byte ranges which start at record boundaries, so that the ranges
+ * can be read and parsed in parallel.
+ *
+ * A newline only ends a record when it is not inside a quoted column, which can't be told
+ * by looking at the bytes around a split point. The file is therefore scanned in two parallel
+ * passes: the first pass runs the quote/escape state machine over every chunk from each possible
+ * starting state, which chains into the actual state at the beginning of every chunk; the second
+ * pass moves every chunk start forward to the first newline that is outside of quotes. Both
+ * passes only look at single bytes, so the file must use an ASCII compatible character set.
+ */
+class CSVFileSplitter {
+
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+    private static final byte NEWLINE = '\n';
+
+    // States of the state machine, follows the supercsv tokenizer
+    private static final int NORMAL = 0;
+    private static final int ESCAPED = 1;
+    private static final int QUOTE_MODE = 2;
+    private static final int STATE_COUNT = 3;
+
+    /**
+     * A range of the file which starts at a record boundary.
+     */
+    static class Split {
+        final long m_start;
+        final long m_end;
+        // Number of lines in the file before this split
+        final long m_lineOffset;
+
+        Split(long start, long end, long lineOffset) {
+            m_start = start;
+            m_end = end;
+            m_lineOffset = lineOffset;
+        }
+
+        long length() {
+            return m_end - m_start;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + m_start + ", " + m_end + ") after line " + m_lineOffset;
+        }
+    }
+
+    private final File m_file;
+    private final byte m_quote;
+    private final byte m_escape;
+    private final boolean m_hasQuote;
+
+    CSVFileSplitter(File file, char quote, char escape) {
+        m_file = file;
+        m_hasQuote = quote != '\u0000';
+        m_quote = (byte) quote;
+        m_escape = (byte) escape;
+    }
+
+    private int transition(int state, byte b) {
+        switch (state) {
+        case ESCAPED:
+            return NORMAL;
+        case QUOTE_MODE:
+            return (m_hasQuote && b == m_quote) ? NORMAL : QUOTE_MODE;
+        default:
+            if (m_hasQuote && b == m_quote) {
+                return QUOTE_MODE;
+            }
+            return b == m_escape ? ESCAPED : NORMAL;
+        }
+    }
+
+    /**
+     * Result of the first pass over a chunk.
+     */
+    private static class ChunkSummary {
+        // End state for every possible start state
+        final int[] m_endStates = new int[STATE_COUNT];
+        long m_newlines = 0;
+    }
+
+    /**
+     * Split the file into at most <code>count</code> record aligned ranges.
+     * Ranges that would be empty are left out.
+     */
+    List<Split> split(int count) throws IOException, InterruptedException {
+        final long size = m_file.length();
+        final long chunkSize = Math.max(1, (size + count - 1) / count);
+        final int chunks = (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+
+        ListeningExecutorService es = CoreUtils.getListeningExecutorService("CSVFileSplitter", chunks);
+        try (RandomAccessFile raf = new RandomAccessFile(m_file, "r")) {
+            final FileChannel channel = raf.getChannel();
+
+            // First pass, summarize every chunk
+            List<Future<ChunkSummary>> summaryFutures = new ArrayList<>();
+            for (int i = 0; i < chunks; i++) {
+                final long start = i * chunkSize;
+                final long end = Math.min(size, start + chunkSize);
+                summaryFutures.add(es.submit(new Callable<ChunkSummary>() {
+                    @Override
+                    public ChunkSummary call() throws IOException {
+                        return summarize(channel, start, end);
+                    }
+                }));
+            }
+
+            // Chain the states and line counts at the beginning of every chunk
+            final int[] startStates = new int[chunks];
+            final long[] startLines = new long[chunks];
+            int state = NORMAL;
+            long lines = 0;
+            for (int i = 0; i < chunks; i++) {
+                startStates[i] = state;
+                startLines[i] = lines;
+                ChunkSummary summary = get(summaryFutures.get(i));
+                state = summary.m_endStates[state];
+                lines += summary.m_newlines;
+            }
+
+            // Second pass, move every chunk start to the next record boundary
+            List<Future<long[]>> boundaryFutures = new ArrayList<>();
+            for (int i = 1; i < chunks; i++) {
+                final long start = i * chunkSize;
+                final int startState = startStates[i];
+                final long startLine = startLines[i];
+                boundaryFutures.add(es.submit(new Callable<long[]>() {
+                    @Override
+                    public long[] call() throws IOException {
+                        return findRecordStart(channel, start, size, startState, startLine);
+                    }
+                }));
+            }
+
+            List<Split> splits = new ArrayList<>();
+            long splitStart = 0;
+            long splitLine = 0;
+            for (Future<long[]> future : boundaryFutures) {
+                long[] boundary = get(future);
+                if (boundary[0] > splitStart) {
+                    splits.add(new Split(splitStart, boundary[0], splitLine));
+                    splitStart = boundary[0];
+                    splitLine = boundary[1];
+                }
+            }
+            if (size > splitStart || splits.isEmpty()) {
+                splits.add(new Split(splitStart, size, splitLine));
+            }
+            return splits;
+        } finally {
+            es.shutdown();
+        }
+    }
+
+    private static <T> T get(Future<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private ChunkSummary summarize(FileChannel channel, long start, long end) throws IOException {
+        ChunkSummary summary = new ChunkSummary();
+        int[] states = { NORMAL, ESCAPED, QUOTE_MODE };
+        ByteBuffer buf = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        long position = start;
+        while (position < end) {
+            buf.clear();
+            buf.limit((int) Math.min(buf.capacity(), end - position));
+            int read = channel.read(buf, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+            byte[] bytes = buf.array();
+            for (int i = 0; i < read; i++) {
+                byte b = bytes[i];
+                if (b == NEWLINE) {
+                    summary.m_newlines++;
+                }
+                states[NORMAL] = transition(states[NORMAL], b);
+                states[ESCAPED] = transition(states[ESCAPED], b);
+                states[QUOTE_MODE] = transition(states[QUOTE_MODE], b);
+            }
+        }
+        System.arraycopy(states, 0, summary.m_endStates, 0, STATE_COUNT);
+        return summary;
+    }
+
+    /**
+     * @return the offset of the first record which starts at or after <code>start</code>,
+     * and the number of lines before it
+     */
+    private long[] findRecordStart(FileChannel channel, long start, long size, int state, long lines)
+            throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        long position = start;
+        // A chunk which starts right after a newline outside of quotes is already aligned
+        if (state != QUOTE_MODE && start > 0) {
+            ByteBuffer previous = ByteBuffer.allocate(1);
+            if (channel.read(previous, start - 1) == 1 && previous.get(0) == NEWLINE) {
+                return new long[] { start, lines };
+            }
+        }
+        while (position < size) {
+            buf.clear();
+            int read = channel.read(buf, position);
+            if (read < 0) {
+                break;
+            }
+            byte[] bytes = buf.array();
+            for (int i = 0; i < read; i++) {
+                byte b = bytes[i];
+                if (b == NEWLINE) {
+                    lines++;
+                    if (state != QUOTE_MODE) {
+                        return new long[] { position + i + 1, lines };
+                    }
+                }
+                state = transition(state, b);
+            }
+            position += read;
+        }
+        return new long[] { size, lines };
+    }
+}
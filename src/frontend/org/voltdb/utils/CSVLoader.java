@@ -25,9 +25,13 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import java.util.TimeZone;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.supercsv.io.CsvListReader;
 import org.supercsv.io.ICsvListReader;
@@ -42,6 +46,8 @@ import org.voltdb.client.ClientFactory;
 import org.voltdb.client.ClientImpl;
 import org.voltdb.client.ClientResponse;
 
+import com.google_voltpatches.common.io.ByteStreams;
+
 /**
  * CSVLoader is a simple utility to load data from a CSV formatted file to a table.
  *
@@ -78,6 +84,7 @@ public class CSVLoader implements BulkLoaderErrorHandler {
     private static BufferedWriter out_logfile;
     private static BufferedWriter out_reportfile;
     private static CsvPreference csvPreference = null;
+    private static final VoltLogger m_log = new VoltLogger("CSVLOADER");
     /**
      * default CSV separator
      */
@@ -118,6 +125,10 @@ public class CSVLoader implements BulkLoaderErrorHandler {
      * Stop when all connections are lost?
      */
     public static final boolean DEFAULT_STOP_ON_DISCONNECT = false;
+    /**
+     * Number of threads reading the CSV file
+     */
+    public static final int DEFAULT_READERS = 1;
     /**
      * Used for testing only.
      */
@@ -331,6 +342,12 @@ public class CSVLoader implements BulkLoaderErrorHandler {
 
         @Option(desc = "Stop when all connections are lost", hasArg = false)
         boolean stopondisconnect = DEFAULT_STOP_ON_DISCONNECT;
+
+        @Option(desc = "number of threads reading and parsing ranges of the CSV file in parallel (default: 1)")
+        int readers = DEFAULT_READERS;
+
+        @Option(desc = "seconds between progress reports, 0 disables the reports (default: 0)")
+        int progress = 0;
         /**
          * Validate command line options.
          */
@@ -357,6 +374,23 @@ public class CSVLoader implements BulkLoaderErrorHandler {
             if (batch < 0) {
                 exitWithMessageAndUsage("batch size number must be >= 0");
             }
+            if (readers < 1) {
+                exitWithMessageAndUsage("readers must be >= 1");
+            }
+            if (readers > 1) {
+                if (file.equals("")) {
+                    exitWithMessageAndUsage("--readers can only be used when reading from a file");
+                }
+                if (skip != DEFAULT_SKIP_LINES || limitrows != Integer.MAX_VALUE) {
+                    exitWithMessageAndUsage("--readers can not be used with --skip or --limitrows");
+                }
+                if (!isAsciiCompatible(charset)) {
+                    exitWithMessageAndUsage("--readers requires an ASCII compatible character set");
+                }
+            }
+            if (progress < 0) {
+                exitWithMessageAndUsage("progress must be >= 0");
+            }
             if(!customNullString.isEmpty() && !blank.equals("error")){
                 blank = "empty";
             }
@@ -387,6 +421,26 @@ public class CSVLoader implements BulkLoaderErrorHandler {
             }
         }
 
+        /**
+         * The file is split on raw bytes, so the newline, quote and escape
+         * characters must be encoded the same as in ASCII.
+         */
+        private boolean isAsciiCompatible(String charsetName) {
+            try {
+                Charset cs = Charset.forName(charsetName);
+                String special = "\n" + quotechar + escape + separator;
+                for (char c : special.toCharArray()) {
+                    byte[] encoded = String.valueOf(c).getBytes(cs);
+                    if (c > 0x7F || encoded.length != 1 || encoded[0] != c) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+
         /**
          * Usage
          */
@@ -424,18 +478,19 @@ public class CSVLoader implements BulkLoaderErrorHandler {
 
         configuration();
 
-        final Tokenizer tokenizer;
-        ICsvListReader listReader = null;
+        final List<ICsvListReader> listReaders = new ArrayList<>();
+        final List<Long> lineOffsets = new ArrayList<>();
         try {
             if (CSVLoader.standin) {
-                tokenizer = new Tokenizer(new BufferedReader(new InputStreamReader(System.in)), csvPreference,
+                Tokenizer tokenizer = new Tokenizer(new BufferedReader(new InputStreamReader(System.in)), csvPreference,
                         config.strictquotes, config.escape, config.columnsizelimit,
                         config.skip, config.header);
-                listReader = new CsvListReader(tokenizer, csvPreference);
-            } else {
+                listReaders.add(new CsvListReader(tokenizer, csvPreference));
+                lineOffsets.add(0L);
+            } else if (config.readers == 1) {
                 FileInputStream fis = new FileInputStream(config.file);
                 InputStreamReader isr = new InputStreamReader(fis, config.charset);
-                tokenizer = new Tokenizer(isr,
+                Tokenizer tokenizer = new Tokenizer(isr,
                           csvPreference,
                           config.strictquotes,
                           config.escape,
@@ -443,7 +498,28 @@ public class CSVLoader implements BulkLoaderErrorHandler {
                           config.skip,
                           config.header);
 
-                listReader = new CsvListReader(tokenizer, csvPreference);
+                listReaders.add(new CsvListReader(tokenizer, csvPreference));
+                lineOffsets.add(0L);
+            } else {
+                File csvFile = new File(config.file);
+                if (!csvFile.isFile()) {
+                    throw new FileNotFoundException(config.file);
+                }
+                CSVFileSplitter splitter = new CSVFileSplitter(csvFile, config.quotechar, config.escape);
+                for (CSVFileSplitter.Split split : splitter.split(config.readers)) {
+                    FileInputStream fis = new FileInputStream(csvFile);
+                    fis.getChannel().position(split.m_start);
+                    InputStreamReader isr = new InputStreamReader(ByteStreams.limit(fis, split.length()), config.charset);
+                    Tokenizer tokenizer = new Tokenizer(isr,
+                            csvPreference,
+                            config.strictquotes,
+                            config.escape,
+                            config.columnsizelimit,
+                            0,
+                            config.header && split.m_start == 0);
+                    listReaders.add(new CsvListReader(tokenizer, csvPreference));
+                    lineOffsets.add(split.m_lineOffset);
+                }
             }
         } catch (FileNotFoundException e) {
             System.err.println("CSV file '" + config.file + "' could not be found.");
@@ -509,17 +585,47 @@ public class CSVLoader implements BulkLoaderErrorHandler {
                 listener.setLoader(dataLoader);
             }
 
-            CSVFileReader.initializeReader(cfg, csvClient, listReader);
+            CSVFileReader.initializeReader(cfg, csvClient);
+
+            List<CSVFileReader> csvReaders = new ArrayList<>();
+            List<Thread> readerThreads = new ArrayList<>();
+            for (int i = 0; i < listReaders.size(); i++) {
+                CSVFileReader csvReader = new CSVFileReader(dataLoader, errHandler, listReaders.get(i), lineOffsets.get(i));
+                if (i == 0) {
+                    csvReader.readHeader();
+                } else {
+                    csvReader.copyHeader(csvReaders.get(0));
+                }
+                csvReaders.add(csvReader);
 
-            CSVFileReader csvReader = new CSVFileReader(dataLoader, errHandler);
+                Thread readerThread = new Thread(csvReader);
+                readerThread.setName(listReaders.size() == 1 ? "CSVFileReader" : "CSVFileReader-" + i);
+                readerThread.setDaemon(true);
+                readerThreads.add(readerThread);
+            }
 
-            Thread readerThread = new Thread(csvReader);
-            readerThread.setName("CSVFileReader");
-            readerThread.setDaemon(true);
+            //Wait for readers to finish.
+            for (Thread readerThread : readerThreads) {
+                readerThread.start();
+            }
+            final long progressMillis = TimeUnit.SECONDS.toMillis(config.progress);
+            for (Thread readerThread : readerThreads) {
+                readerThread.join(progressMillis);
+                while (readerThread.isAlive()) {
+                    reportProgress(dataLoader);
+                    readerThread.join(progressMillis);
+                }
+            }
 
-            //Wait for reader to finish.
-            readerThread.start();
-            readerThread.join();
+            //Now wait for processors to see endOfData and count down. After that drain to finish all callbacks
+            try {
+                m_log.debug("Waiting for CSVDataLoader to finish.");
+                dataLoader.close();
+                m_log.debug("CSVDataLoader Done.");
+            } catch (Exception ex) {
+                m_log.warn("Stopped processing because of connection error. "
+                        + "A report will be generated with what we processed so far. Error: " + ex);
+            }
 
             insertTimeEnd = System.currentTimeMillis();
 
@@ -527,18 +633,16 @@ public class CSVLoader implements BulkLoaderErrorHandler {
 
             errHandler.waitForErrorFlushComplete();
 
-            readerTime = (csvReader.m_parsingTime) / 1000000;
+            readerTime = 0;
+            for (CSVFileReader csvReader : csvReaders) {
+                readerTime += csvReader.m_parsingTime / 1000000;
+                //Close the reader.
+                csvReader.closeListReader();
+            }
             insertCount = dataLoader.getProcessedRows();
             ackCount = insertCount - dataLoader.getFailedRows();
             rowsQueued = CSVFileReader.m_totalRowCount.get();
 
-            //Close the reader.
-            try {
-               listReader.close();
-            } catch (Exception ex) {
-                //Do nothing here.
-            }
-
             if (errHandler.hasReachedErrorLimit()) {
                System.out.println("The number of failed rows exceeds the configured maximum failed rows: "
                                   + config.maxerrors);
@@ -557,6 +661,13 @@ public class CSVLoader implements BulkLoaderErrorHandler {
         }
     }
 
+    private static void reportProgress(CSVDataLoader dataLoader) {
+        long elapsed = System.currentTimeMillis() - start;
+        long insertCount = dataLoader.getProcessedRows();
+        System.out.println("Read " + CSVFileReader.m_totalRowCount.get() + " rows from file and inserted "
+                           + insertCount + " rows, " + (long) (insertCount / (elapsed / 1000F)) + " row/s");
+    }
+
     private static void configuration() {
         csvPreference = new CsvPreference.Builder(config.quotechar, config.separator, "\n").build();
         if (config.file.equals("")) {
@@ -22,6 +22,7 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.SyncFailedException;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -38,16 +39,27 @@ public class CSVTableSaveFile {
     private final AtomicInteger m_availableBytes = new AtomicInteger(0);
     private final int m_maxAvailableBytes = 16777216;
     private final LinkedBlockingQueue<byte[]> m_available = new LinkedBlockingQueue<byte[]>();
-    private final Thread m_converterThreads[] = new Thread[CoreUtils.availableProcessors()];
+    private final Thread m_converterThreads[];
     private final AtomicReference<IOException> m_exception = new AtomicReference<IOException>(
             null);
-    private final AtomicInteger m_activeConverters = new AtomicInteger(CoreUtils.availableProcessors());
+    private final AtomicInteger m_activeConverters;
     private final TableSaveFile m_saveFile;
     private final char m_delimiter;
 
     public CSVTableSaveFile(File saveFile, char delimiter, Integer partitions[])
             throws IOException {
+        this(saveFile, delimiter, partitions, CoreUtils.availableProcessors());
+    }
+
+    /**
+     * @param converterThreads number of threads converting chunks to CSV, several save files
+     * being converted at the same time should share the processors
+     */
+    public CSVTableSaveFile(File saveFile, char delimiter, Integer partitions[], int converterThreads)
+            throws IOException {
         m_delimiter = delimiter;
+        m_converterThreads = new Thread[Math.max(1, converterThreads)];
+        m_activeConverters = new AtomicInteger(m_converterThreads.length);
         final FileInputStream fis = new FileInputStream(saveFile);
         m_saveFile = new TableSaveFile(fis, 10, partitions);
         for (int ii = 0; ii < m_converterThreads.length; ii++) {
@@ -205,25 +217,38 @@ public class CSVTableSaveFile {
             SyncFailedException {
         final FileOutputStream fos = new FileOutputStream(outfile, true);
         try {
-            final CSVTableSaveFile converter = new CSVTableSaveFile(infile,
-                    delimiter, partitions);
             try {
-                while (true) {
-                    final byte bytes[] = converter.read();
-                    if (bytes.length == 0) {
-                        break;
-                    }
-                    fos.write(bytes);
-                }
+                convertTableSaveFile(delimiter, partitions, fos, infile, CoreUtils.availableProcessors());
             } finally {
-                try {
-                    converter.close();
-                } finally {
-                    fos.getFD().sync();
-                }
+                fos.getFD().sync();
             }
         } finally {
             fos.close();
         }
     }
+
+    /**
+     * Convert a save file and append the CSV to <code>out</code>. Several save files can be
+     * converted into the same stream at the same time, the stream is written under its own lock
+     * a block of complete lines at a time.
+     */
+    public static void convertTableSaveFile(char delimiter,
+            Integer[] partitions, final OutputStream out, final File infile, int converterThreads)
+            throws IOException, InterruptedException {
+        final CSVTableSaveFile converter = new CSVTableSaveFile(infile,
+                delimiter, partitions, converterThreads);
+        try {
+            while (true) {
+                final byte bytes[] = converter.read();
+                if (bytes.length == 0) {
+                    break;
+                }
+                synchronized (out) {
+                    out.write(bytes);
+                }
+            }
+        } finally {
+            converter.close();
+        }
+    }
 }
@@ -18,17 +18,25 @@
 package org.voltdb.utils;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.voltcore.logging.VoltLogger;
+import org.voltcore.utils.CoreUtils;
 import org.voltdb.sysprocs.saverestore.SnapshotUtil;
 import org.voltdb.sysprocs.saverestore.SnapshotUtil.Snapshot;
 import org.voltdb.sysprocs.saverestore.SnapshotPathType;
@@ -37,6 +45,10 @@ import org.voltdb.sysprocs.saverestore.SnapshotUtil.TableFiles;
 
 public class SnapshotConverter {
     private static final VoltLogger CONSOLE_LOG = new VoltLogger("CONSOLE");
+    // Each file being converted buffers its CSV output and reads ahead its save file,
+    // so bound the number converted at once to stay within the converter's heap
+    private static final int MAX_PARALLEL_FILES =
+            Math.max(1, Integer.getInteger("SNAPSHOT_CONVERTER_PARALLEL_FILES", 2));
 
     /**
      * @param args
@@ -271,11 +283,22 @@ public class SnapshotConverter {
         }
 
         /*
-         * Actually convert the tables and write the data to the appropriate destination
+         * Actually convert the tables and write the data to the appropriate destination.
+         * All the save files are converted at the same time, the files of a table append
+         * to the same output file a block of complete lines at a time.
          */
+        Map<String, FileOutputStream> outputs = new TreeMap<String, FileOutputStream>();
+        List<ConvertTask> convertTasks = new ArrayList<ConvertTask>();
         for (Map.Entry<String, Map<File, Set<Integer>>> entry : tableToFilesWithPartitions.entrySet()) {
             String tableName = entry.getKey();
             File outfile = new File(outdir.getPath() + File.separator + tableName + "." + type.toLowerCase());
+            try {
+                outputs.put(tableName, new FileOutputStream(outfile, true));
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                System.err.println("Error: Failed to open output file " + outfile.getPath());
+                System.exit(-1);
+            }
 
             Map<File, Set<Integer>> partitionsFromFile = entry.getValue();
             for (Map.Entry<File, Set<Integer>> e2 : partitionsFromFile.entrySet()) {
@@ -289,13 +312,54 @@ public class SnapshotConverter {
                         partitions[ii++] = partition;
                     }
                 }
+                convertTasks.add(new ConvertTask(infile, partitions, outfile, outputs.get(tableName)));
+            }
+        }
+
+        final char csvDelimiter = delimiter;
+        final int processors = CoreUtils.availableProcessors();
+        final int parallelFiles = Math.max(1, Math.min(convertTasks.size(),
+                Math.min(processors, MAX_PARALLEL_FILES)));
+        final int converterThreads = Math.max(1, processors / parallelFiles);
+        ExecutorService es = Executors.newFixedThreadPool(parallelFiles,
+                CoreUtils.getThreadFactory("Snapshot Converter"));
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (final ConvertTask task : convertTasks) {
+                futures.add(es.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        CSVTableSaveFile.convertTableSaveFile(csvDelimiter, task.m_partitions, task.m_output,
+                                task.m_infile, converterThreads);
+                        return null;
+                    }
+                }));
+            }
+            for (int ii = 0; ii < futures.size(); ii++) {
+                ConvertTask task = convertTasks.get(ii);
                 try {
-                    CSVTableSaveFile.convertTableSaveFile(delimiter, partitions, outfile, infile);
+                    futures.get(ii).get();
                 } catch (Exception e) {
-                    System.err.println(e.getMessage());
-                    System.err.println("Error: Failed to convert " + infile.getPath() + " to " + outfile.getPath());
+                    Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                    System.err.println(cause.getMessage());
+                    System.err.println("Error: Failed to convert " + task.m_infile.getPath() + " to " + task.m_outfile.getPath());
                 }
             }
+        } finally {
+            es.shutdown();
+        }
+
+        for (FileOutputStream fos : outputs.values()) {
+            try {
+                try {
+                    fos.getFD().sync();
+                } finally {
+                    fos.close();
+                }
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                fail = true;
+            }
         }
 
         if (fail) {
@@ -303,6 +367,20 @@ public class SnapshotConverter {
         }
     }
 
+    private static class ConvertTask {
+        final File m_infile;
+        final Integer m_partitions[];
+        final File m_outfile;
+        final FileOutputStream m_output;
+
+        ConvertTask(File infile, Integer partitions[], File outfile, FileOutputStream output) {
+            m_infile = infile;
+            m_partitions = partitions;
+            m_outfile = outfile;
+            m_output = output;
+        }
+    }
+
     private static void printHelpAndQuit( int code) {
         System.out.println("Usage: snapshotconverter --help");
         System.out.println("snapshotconverter --dir dir1 --dir dir2 --dir dir3 " +
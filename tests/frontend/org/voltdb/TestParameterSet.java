@@ -61,6 +61,7 @@ import junit.framework.TestCase;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.hadoop_voltpatches.util.PureJavaCrc32C;
 import org.json_voltpatches.JSONException;
+import org.voltdb.common.Constants;
 import org.voltdb.types.TimestampType;
 import org.voltdb.types.VoltDecimalHelper;
 
@@ -537,4 +538,72 @@ public class TestParameterSet extends TestCase {
 
         assertTrue(Arrays.deepEquals(pset1array, pset2array));
     }
+
+    private static ByteBuffer serialize(Object... args) throws IOException {
+        ParameterSet pset = ParameterSet.fromArrayNoCopy(args);
+        ByteBuffer buf = ByteBuffer.allocate(pset.getSerializedSize());
+        pset.flattenToBuffer(buf);
+        buf.flip();
+        return buf;
+    }
+
+    public void testHasExactTypes() throws IOException {
+        byte[] types = { VoltType.BIGINT.getValue(), VoltType.INTEGER.getValue(),
+                         VoltType.STRING.getValue(), VoltType.TIMESTAMP.getValue(),
+                         VoltType.FLOAT.getValue() };
+        ByteBuffer buf = serialize(5L, 6, "seven", new TimestampType(8), 9.0);
+        assertTrue(ParameterSet.hasExactTypes(buf, types));
+        assertEquals(0, buf.position());
+
+        // Typed nulls pass, a null string is serialized the same either way
+        assertTrue(ParameterSet.hasExactTypes(
+                serialize(VoltType.NULL_BIGINT, 6, VoltType.NULL_STRING_OR_VARBINARY, new TimestampType(8), 9.0),
+                types));
+
+        // Anything needing a conversion doesn't
+        assertFalse(ParameterSet.hasExactTypes(serialize(5, 6, "seven", new TimestampType(8), 9.0), types));
+        assertFalse(ParameterSet.hasExactTypes(serialize(null, 6, "seven", new TimestampType(8), 9.0), types));
+        assertFalse(ParameterSet.hasExactTypes(serialize(5L, 6, "seven", new TimestampType(8)), types));
+        assertFalse(ParameterSet.hasExactTypes(serialize(5L, 6, "seven", new TimestampType(8), 9.0, 10L), types));
+        assertFalse(ParameterSet.hasExactTypes(serialize(new long[] { 5L }),
+                                               new byte[] { VoltType.BIGINT.getValue() }));
+        assertFalse(ParameterSet.hasExactTypes(serialize(new BigDecimal(5)),
+                                               new byte[] { VoltType.DECIMAL.getValue() }));
+    }
+    private static ByteBuffer serializedString(int len, byte... bytes) {
+        ByteBuffer buf = ByteBuffer.allocate(2 + 1 + 4 + bytes.length);
+        buf.putShort((short) 1).put(VoltType.STRING.getValue()).putInt(len).put(bytes);
+        buf.flip();
+        return buf;
+    }
+
+    public void testHasExactTypesBadLengths() throws IOException {
+        byte[] types = { VoltType.STRING.getValue() };
+        assertTrue(ParameterSet.hasExactTypes(serializedString(3, (byte) 'a', (byte) 'b', (byte) 'c'), types));
+        assertFalse(ParameterSet.hasExactTypes(serializedString(4, (byte) 'a', (byte) 'b', (byte) 'c'), types));
+        // Lengths which would overflow the position
+        assertFalse(ParameterSet.hasExactTypes(serializedString(Integer.MAX_VALUE, (byte) 'a'), types));
+        assertFalse(ParameterSet.hasExactTypes(serializedString(Integer.MAX_VALUE - 2, (byte) 'a'), types));
+        assertFalse(ParameterSet.hasExactTypes(serializedString(-2, (byte) 'a'), types));
+    }
+
+    public void testHasExactTypesChecksUTF8() throws IOException {
+        byte[] types = { VoltType.STRING.getValue() };
+        assertTrue(ParameterSet.hasExactTypes(serialize("\u00e9\u20ac\ud83d\ude00"), types));
+
+        byte[][] malformed = {
+                { (byte) 0x80 },                                   // stray continuation
+                { (byte) 0xC0, (byte) 0xAF },                      // overlong
+                { (byte) 0xE0, (byte) 0x80, (byte) 0xAF },         // overlong
+                { (byte) 0xED, (byte) 0xA0, (byte) 0x80 },         // surrogate
+                { (byte) 0xF4, (byte) 0x90, (byte) 0x80, (byte) 0x80 }, // past U+10FFFF
+                { (byte) 0xE2, (byte) 0x82 },                      // truncated
+                { (byte) 0xE2, (byte) 0x28, (byte) 0xA1 },         // bad continuation
+                { (byte) 0xFF } };
+        for (byte[] bytes : malformed) {
+            assertFalse(ParameterSet.hasExactTypes(serializedString(bytes.length, bytes), types));
+            // The regular path replaces malformed input, so these couldn't pass through
+            assertFalse(Arrays.equals(bytes, new String(bytes, Constants.UTF8ENCODING).getBytes(Constants.UTF8ENCODING)));
+        }
+    }
 }
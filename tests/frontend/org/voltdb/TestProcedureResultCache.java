@@ -0,0 +1,115 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2019 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.voltdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+import org.voltdb.client.ClientResponse;
+
+public class TestProcedureResultCache {
+
+    private static ByteBuffer params(Object... args) throws Exception {
+        ParameterSet ps = ParameterSet.fromArrayNoCopy(args);
+        ByteBuffer buf = ByteBuffer.allocate(ps.getSerializedSize());
+        ps.flattenToBuffer(buf);
+        buf.flip();
+        return buf;
+    }
+
+    private static ClientResponseImpl response(long value) {
+        VoltTable table = new VoltTable(new VoltTable.ColumnInfo("V", VoltType.BIGINT));
+        table.addRow(value);
+        return new ClientResponseImpl(ClientResponse.SUCCESS, new VoltTable[] { table }, null);
+    }
+
+    private static long value(ClientResponseImpl response) {
+        return response.getResults()[0].asScalarLong();
+    }
+
+    @Test
+    public void testHitAndMiss() throws Exception {
+        ProcedureResultCache cache = new ProcedureResultCache(0, 0, 1024 * 1024);
+        String[] tables = { "T1" };
+        assertNull(cache.get("P", params(1)));
+        cache.put("P", params(1), tables, response(10));
+
+        ClientResponseImpl cached = cache.get("P", params(1));
+        assertNotNull(cached);
+        assertEquals(10, value(cached));
+        // Every hit reads its own copy of the results
+        assertEquals(10, value(cache.get("P", params(1))));
+
+        assertNull(cache.get("P", params(2)));
+        assertNull(cache.get("Q", params(1)));
+        assertEquals(2, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void testFailuresAreNotCached() throws Exception {
+        ProcedureResultCache cache = new ProcedureResultCache(0, 0, 1024 * 1024);
+        cache.put("P", params(1), new String[] { "T1" },
+                new ClientResponseImpl(ClientResponse.USER_ABORT, new VoltTable[0], "abort"));
+        assertNull(cache.get("P", params(1)));
+    }
+
+    @Test
+    public void testTableWrites() throws Exception {
+        ProcedureResultCache cache = new ProcedureResultCache(0, 0, 1024 * 1024);
+        cache.put("P", params(1), new String[] { "T1" }, response(1));
+        cache.put("P", params(2), new String[] { "T2" }, response(2));
+        cache.put("V", params(1), new String[] { "T3", ProcedureResultCache.ANY_TABLE }, response(3));
+
+        cache.tablesWritten(new String[] { "T2" });
+        assertNotNull(cache.get("P", params(1)));
+        assertNull(cache.get("P", params(2)));
+        // Entries reading views go stale on any write
+        assertNull(cache.get("V", params(1)));
+
+        cache.put("P", params(2), new String[] { "T2" }, response(2));
+        assertEquals(2, value(cache.get("P", params(2))));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.getEntryCount());
+        assertNull(cache.get("P", params(1)));
+    }
+
+    @Test
+    public void testLRUEviction() throws Exception {
+        ProcedureResultCache cache = new ProcedureResultCache(0, 0, 1024);
+        String[] tables = { "T1" };
+        for (int i = 0; i < 100; i++) {
+            cache.put("P", params(i), tables, response(i));
+            // Keep the first entry recently used
+            assertNotNull(cache.get("P", params(0)));
+        }
+        assertNotNull(cache.get("P", params(99)));
+        assertNull(cache.get("P", params(1)));
+        assertEquals(true, cache.getEntryCount() < 100);
+    }
+}
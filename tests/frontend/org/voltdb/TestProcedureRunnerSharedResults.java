@@ -0,0 +1,165 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2019 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import java.nio.ByteBuffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.voltdb.catalog.Column;
+import org.voltdb.catalog.Procedure;
+import org.voltdb.client.ClientResponse;
+import org.voltdb.dtxn.TransactionState;
+import org.voltdb.iv2.Site;
+import org.voltdb.jni.ExecutionEngine;
+import org.voltdb.messaging.FastDeserializer;
+
+/**
+ * Results of the batches after the first are left in the EE buffer shared by those
+ * batches. Check that the results a procedure holds survive the EE reusing the buffer.
+ */
+public class TestProcedureRunnerSharedResults {
+
+    // The EE buffer shared by every batch after the first
+    private final ByteBuffer m_sharedBuffer = ByteBuffer.allocateDirect(1024);
+    private final ByteBuffer m_firstBatchBuffer = ByteBuffer.allocateDirect(1024);
+    private long m_nextValue = 1;
+    private boolean m_firstBatchDone = false;
+
+    public static class HoldResultsProcedure extends VoltProcedure {
+        static VoltTable s_held;
+        static long s_valueAfterLoad;
+
+        public long run(long ignored) {
+            SQLStmt stmt = new SQLStmt("SELECT V FROM T;");
+            stmt.aggregator = new SQLStmt.Frag(1, new byte[20], true);
+            stmt.statementParamTypes = new byte[0];
+            stmt.isReadOnly = true;
+
+            voltQueueSQL(stmt);
+            voltExecuteSQL();
+            voltQueueSQL(stmt);
+            s_held = voltExecuteSQL()[0];
+
+            // Loading a table reuses the EE buffer holding the results of the second batch
+            VoltTable data = new VoltTable(new VoltTable.ColumnInfo("V", VoltType.BIGINT));
+            data.addRow(0);
+            m_runner.voltLoadTable("cluster", "database", "T", data, false, false, false);
+            s_valueAfterLoad = s_held.fetchRow(0).getLong(0);
+            return 0;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        VoltDBInterface voltdb = mock(VoltDBInterface.class);
+        doReturn(mock(StatsAgent.class)).when(voltdb).getStatsAgent();
+        VoltDB.replaceVoltDBInstanceForTest(voltdb);
+    }
+
+    @After
+    public void tearDown() {
+        HoldResultsProcedure.s_held = null;
+    }
+
+    // Serialize a one row result into the given buffer the way the EE does
+    private FastDeserializer writeResult(ByteBuffer buffer) {
+        VoltTable result = new VoltTable(new VoltTable.ColumnInfo("V", VoltType.BIGINT));
+        result.addRow(m_nextValue++);
+        ByteBuffer table = result.getBuffer();
+        buffer.clear();
+        buffer.putInt(0); // DR buffer size
+        buffer.putInt(12 + table.remaining());
+        buffer.putInt(1); // dependency count
+        buffer.putInt(0); // dependency id
+        buffer.putInt(table.remaining());
+        buffer.put(table);
+        buffer.flip();
+        return new FastDeserializer(buffer);
+    }
+
+    private void clobberSharedBuffer() {
+        m_sharedBuffer.clear();
+        while (m_sharedBuffer.hasRemaining()) {
+            m_sharedBuffer.put((byte) 0x5a);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private ProcedureRunner createRunner() throws Exception {
+        Column partitionColumn = mock(Column.class);
+        doReturn((int) VoltType.BIGINT.getValue()).when(partitionColumn).getType();
+        Procedure catProc = mock(Procedure.class);
+        doReturn("HoldResultsProcedure").when(catProc).getTypeName();
+        doReturn(HoldResultsProcedure.class.getName()).when(catProc).getClassname();
+        doReturn(true).when(catProc).getHasjava();
+        doReturn(true).when(catProc).getSinglepartition();
+        doReturn(partitionColumn).when(catProc).getPartitioncolumn();
+
+        Site site = mock(Site.class);
+        SystemProcedureExecutionContext context = mock(SystemProcedureExecutionContext.class);
+        doReturn(context).when(site).getSystemProcedureExecutionContext();
+        doReturn(mock(ExecutionEngine.class)).when(site).getExecutionEngine();
+        // The EE writes the first batch of a procedure into a buffer of its own
+        doAnswer(invocation -> writeResult(m_firstBatchDone ? m_sharedBuffer : m_firstBatchBuffer)).when(site).executePlanFragments(anyInt(), any(), any(), any(), any(), any(), any(), any(),
+                anyLong(), anyLong(), anyLong(), anyBoolean(), anyBoolean());
+        doAnswer(invocation -> {
+            clobberSharedBuffer();
+            return null;
+        }).when(site).loadTable(anyLong(), anyLong(), anyLong(), anyString(), anyString(), anyString(),
+                any(), anyBoolean(), anyBoolean(), anyBoolean());
+        doAnswer(invocation -> {
+            m_firstBatchDone = (Integer) invocation.getArgument(0) > 0;
+            return null;
+        }).when(site).setBatch(anyInt());
+
+        ProcedureRunner runner = new ProcedureRunner(new HoldResultsProcedure(), site, catProc);
+        runner.setupTransaction(mock(TransactionState.class));
+        return runner;
+    }
+
+    @Test
+    public void testHeldResultsSurviveSharedBufferReuse() throws Exception {
+        ProcedureRunner runner = createRunner();
+        ClientResponse response = runner.call(0L);
+        assertEquals(response.getStatusString(), ClientResponse.SUCCESS, response.getStatus());
+        // The second batch read 2
+        assertEquals(2, HoldResultsProcedure.s_valueAfterLoad);
+
+        // The EE reuses the buffer after the procedure returns
+        clobberSharedBuffer();
+        assertEquals(2, HoldResultsProcedure.s_held.fetchRow(0).getLong(0));
+    }
+}
@@ -0,0 +1,120 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2019 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.voltdb.iv2.SiteTasker;
+import org.voltdb.iv2.SiteTaskerQueue;
+
+/**
+ * Snapshot work backs off while transactions wait in the site queue for longer than
+ * the latency budget.
+ */
+public class TestSnapshotSiteProcessorBackoff {
+
+    private static final long BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private long m_savedBudget;
+    private SiteTaskerQueue m_queue;
+    private QueueDepthTracker m_queueDepth;
+    private VoltDBInterface m_voltdb;
+    private SnapshotSiteProcessor m_processor;
+
+    @Before
+    public void setUp() {
+        m_savedBudget = SnapshotSiteProcessor.SNAPSHOT_LATENCY_BUDGET_NANOS;
+        SnapshotSiteProcessor.SNAPSHOT_LATENCY_BUDGET_NANOS = BUDGET_NANOS;
+        m_voltdb = mock(VoltDBInterface.class);
+        VoltDB.replaceVoltDBInstanceForTest(m_voltdb);
+        m_queueDepth = mock(QueueDepthTracker.class);
+        m_queue = mock(SiteTaskerQueue.class);
+        doReturn(m_queueDepth).when(m_queue).getQueueDepthTracker();
+        m_processor = new SnapshotSiteProcessor(m_queue, 5, new SnapshotSiteProcessor.IdlePredicate() {
+            @Override
+            public boolean idle(long now) {
+                return false;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        SnapshotSiteProcessor.SNAPSHOT_LATENCY_BUDGET_NANOS = m_savedBudget;
+    }
+
+    private void setQueue(int depth, long waitNanos) {
+        doReturn(depth).when(m_queueDepth).getQueueDepth();
+        doReturn(waitNanos).when(m_queueDepth).getCurrentWaitTime(anyLong());
+        doReturn(0L).when(m_queueDepth).getRecentMaxWaitTime();
+    }
+
+    @Test
+    public void testBackoffFollowsQueueLatency() {
+        setQueue(3, BUDGET_NANOS * 5);
+        for (int expected : new int[] { 2, 4, 8, 16, 16 }) {
+            assertEquals(expected, m_processor.updateSnapshotBackoff());
+        }
+        assertEquals(5, m_processor.getSnapshotThrottles());
+
+        // Within the budget the backoff shrinks, and an empty queue resets it
+        setQueue(3, BUDGET_NANOS / 2);
+        assertEquals(8, m_processor.updateSnapshotBackoff());
+        assertEquals(4, m_processor.updateSnapshotBackoff());
+        setQueue(0, 0);
+        assertEquals(1, m_processor.updateSnapshotBackoff());
+        assertEquals(5, m_processor.getSnapshotThrottles());
+    }
+
+    @Test
+    public void testCongestedSiteDefersSnapshotWork() {
+        setQueue(3, BUDGET_NANOS * 5);
+        m_processor.updateSnapshotBackoff();
+        m_processor.rescheduleSnapshotWork();
+        verify(m_queue, never()).offer(any(SiteTasker.class));
+        verify(m_voltdb).schedulePriorityWork(any(Runnable.class), anyLong(), eq(0L), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testNoBackoffWithoutBudget() {
+        SnapshotSiteProcessor.SNAPSHOT_LATENCY_BUDGET_NANOS = 0;
+        setQueue(3, BUDGET_NANOS * 5);
+        assertEquals(1, m_processor.updateSnapshotBackoff());
+        assertEquals(0, m_processor.getSnapshotThrottles());
+        m_processor.rescheduleSnapshotWork();
+        verify(m_queue).offer(any(SiteTasker.class));
+    }
+}
@@ -42,6 +42,7 @@ import org.junit.Test;
 import org.voltcore.utils.InstanceId;
 import org.voltcore.utils.Pair;
 import org.voltdb.TheHashinator.HashinatorConfig;
+import org.voltdb.client.HashinatorLite;
 import org.voltdb.jni.ExecutionEngine;
 import org.voltdb.jni.ExecutionEngineJNI;
 import org.voltdb.sysprocs.saverestore.HashinatorSnapshotData;
@@ -681,6 +682,47 @@ public class TestTheHashinator {
         assertEquals( 2, hashinator.partitionForToken(Integer.MAX_VALUE - 1));
     }
 
+    /*
+     * The bucket table must resolve every hash to the same token as a search of the ring,
+     * including rings with clustered tokens where a bucket spans several tokens, both in the
+     * server's and in the client's hashinator.
+     */
+    @Test
+    public void testElasticTokenBuckets() {
+        Random r = new Random(42);
+        for (int tokenCount : new int[] { 1, 2, 3, 100, 5000 }) {
+            TreeMap<Integer, Integer> tokens = new TreeMap<Integer, Integer>();
+            tokens.put(Integer.MIN_VALUE, 0);
+            while (tokens.size() < tokenCount) {
+                // Cluster half of the tokens in a small range
+                int token = r.nextBoolean() ? r.nextInt() : r.nextInt(4096);
+                tokens.put(token, r.nextInt(8));
+            }
+            ByteBuffer buf = ByteBuffer.allocate(4 + (8 * tokens.size()));
+            buf.putInt(tokens.size());
+            for (Map.Entry<Integer, Integer> e : tokens.entrySet()) {
+                buf.putInt(e.getKey());
+                buf.putInt(e.getValue());
+            }
+            ElasticHashinator hashinator = new ElasticHashinator(buf.array(), false);
+            HashinatorLite lite = new HashinatorLite(buf.array(), false);
+
+            for (int token : tokens.keySet()) {
+                for (int hash : new int[] { token, token - 1, token + 1 }) {
+                    assertEquals((int) tokens.floorEntry(hash).getValue(), hashinator.partitionForToken(hash));
+                    assertEquals((int) tokens.floorEntry(hash).getValue(), lite.partitionForToken(hash));
+                }
+            }
+            for (int i = 0; i < 100000; i++) {
+                int hash = r.nextBoolean() ? r.nextInt() : r.nextInt(8192) - 2048;
+                assertEquals((int) tokens.floorEntry(hash).getValue(), hashinator.partitionForToken(hash));
+                assertEquals((int) tokens.floorEntry(hash).getValue(), lite.partitionForToken(hash));
+            }
+            assertEquals((int) tokens.lastEntry().getValue(), hashinator.partitionForToken(Integer.MAX_VALUE));
+            assertEquals((int) tokens.lastEntry().getValue(), lite.partitionForToken(Integer.MAX_VALUE));
+        }
+    }
+
     @Test
     public void testElasticAddPartitions() throws Exception {
         ElasticHashinator hashinator = new ElasticHashinator(ElasticHashinator.getConfigureBytes(3,
@@ -0,0 +1,94 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2019 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb.compiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.voltdb.VoltTable;
+import org.voltdb.VoltTable.ColumnInfo;
+import org.voltdb.VoltType;
+
+public class TestLiveTableEstimates {
+
+    private static Map<String, Long> counts(Object... tableAndCount) {
+        Map<String, Long> counts = new HashMap<>();
+        for (int i = 0; i < tableAndCount.length; i += 2) {
+            counts.put((String) tableAndCount[i], ((Number) tableAndCount[i + 1]).longValue());
+        }
+        return counts;
+    }
+
+    @Test
+    public void testSampleTakesLargestPartition() {
+        VoltTable stats = new VoltTable(
+                new ColumnInfo("PARTITION_ID", VoltType.BIGINT),
+                new ColumnInfo("TABLE_NAME", VoltType.STRING),
+                new ColumnInfo("TUPLE_COUNT", VoltType.BIGINT));
+        stats.addRow(0, "T1", 500);
+        stats.addRow(1, "T1", 700);
+        stats.addRow(0, "T2", 20);
+        stats.addRow(1, "T2", 10);
+        assertEquals(counts("T1", 700, "T2", 20), LiveTableEstimates.sample(stats));
+    }
+
+    @Test
+    public void testDrift() {
+        // Small tables are all estimated at the floor
+        assertFalse(LiveTableEstimates.hasDrifted(counts(), counts("T", 10), 4));
+        assertFalse(LiveTableEstimates.hasDrifted(counts("T", 10), counts("T", 900), 4));
+        assertTrue(LiveTableEstimates.hasDrifted(counts(), counts("T", 4000), 4));
+        assertFalse(LiveTableEstimates.hasDrifted(counts("T", 4000), counts("T", 15000), 4));
+        assertTrue(LiveTableEstimates.hasDrifted(counts("T", 4000), counts("T", 16000), 4));
+        assertTrue(LiveTableEstimates.hasDrifted(counts("T", 16000), counts("T", 4000), 4));
+        // A dropped table counts as empty
+        assertTrue(LiveTableEstimates.hasDrifted(counts("T", 16000), counts(), 4));
+    }
+
+    @Test
+    public void testEstimatesOnlyMoveOnDrift() {
+        LiveTableEstimates live = new LiveTableEstimates(1, 4);
+        assertTrue(live.isEnabled());
+        assertEquals(1000000, live.getEstimates().getEstimatesForTable("T").maxTuples);
+
+        assertTrue(live.update(counts("T", 50000, "S", 3)));
+        DatabaseEstimates estimates = live.getEstimates();
+        assertEquals(50000, estimates.getEstimatesForTable("T").maxTuples);
+        assertEquals(50000, estimates.getEstimatesForTable("T").minTuples);
+        assertEquals(LiveTableEstimates.MIN_ESTIMATED_TUPLES, estimates.getEstimatesForTable("S").maxTuples);
+
+        assertFalse(live.update(counts("T", 60000, "S", 3)));
+        assertEquals(50000, live.getEstimates().getEstimatesForTable("T").maxTuples);
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        assertFalse(new LiveTableEstimates(0, 4).isEnabled());
+    }
+}
@@ -40,6 +40,7 @@ import org.osgi.framework.ServiceReference;
 import org.osgi.framework.launch.Framework;
 import org.osgi.framework.launch.FrameworkFactory;
 import org.voltdb.importer.formatter.AbstractFormatterFactory;
+import org.voltdb.importer.formatter.FormatException;
 import org.voltdb.importer.formatter.Formatter;
 import org.voltdb.importer.formatter.FormatterBuilder;
 
@@ -343,6 +344,45 @@ public class TestVoltCSVFormatter extends TestCase {
         assertEquals(results[2], "test");
     }
 
+    @Test
+    public void testLowAllocation() throws Exception {
+        ServiceReference refs[] = m_bundle.getRegisteredServices();
+        ServiceReference<AbstractFormatterFactory> reference = refs[0];
+        AbstractFormatterFactory o = m_bundle.getBundleContext().getService(reference);
+        Properties prop = new Properties();
+        prop.setProperty("lowallocation", "true");
+        FormatterBuilder builder = new FormatterBuilder("csv", prop);
+        builder.setFormatterFactory(o);
+        Formatter formatter = builder.create();
+
+        Object[] results = formatter.transform(ByteBuffer.wrap("12,\\N, \"10.05,\"\"te\\\"st\",NULL,\n".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(results.length, 5);
+        assertEquals(results[0], "12");
+        assertEquals(results[1], null);
+        assertEquals(results[2], "10.05,\"te\"st");
+        assertEquals(results[3], null);
+        assertEquals(results[4], "");
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(64);
+        direct.put("xx12\t\u65e5\u672c\txx".getBytes(StandardCharsets.UTF_8));
+        direct.flip();
+        direct.position(2);
+        direct.limit(direct.limit() - 2);
+        builder = new FormatterBuilder("tsv", prop);
+        builder.setFormatterFactory(o);
+        results = builder.create().transform(direct);
+        assertEquals(results.length, 3);
+        assertEquals(results[0], "12");
+        assertEquals(results[1], "\u65e5\u672c");
+        assertEquals(results[2], "");
+
+        try {
+            formatter.transform(ByteBuffer.wrap("12,\"10.05".getBytes(StandardCharsets.UTF_8)));
+            fail();
+        } catch (FormatException e) {
+        }
+    }
+
     @Override
     @After
     public void tearDown() throws Exception {
@@ -34,8 +34,11 @@ import static org.mockito.Mockito.when;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.junit.Test;
 
@@ -150,4 +153,73 @@ public class TestMpTransactionTaskQueue extends TestCase
         verify(m_MPpool).doWork(eq(readtxnid), any(TransactionTask.class));
         verify(m_MPpool).doWork(eq(readtxnid2), any(TransactionTask.class));
     }
+
+    // Reads of a procedure at its pool limit are passed by other reads, but not by writes
+    @Test
+    public void testReadsPassProcedureAtLimit()
+    {
+        TxnEgo txnId = TxnEgo.makeZero(MpInitiator.MP_INIT_PID);
+        txnId = txnId.makeNext();
+        long limitedtxnid = txnId.getTxnId();
+        MpProcedureTask limited = makeTransactionTask(limitedtxnid, true);
+        when(m_MPpool.isProcedureAtLimit(limited)).thenReturn(true);
+        m_dut.offer(limited);
+        verify(m_MPpool, never()).doWork(eq(limitedtxnid), any(TransactionTask.class));
+
+        // a later read of another procedure goes ahead
+        txnId = txnId.makeNext();
+        long readtxnid = txnId.getTxnId();
+        m_dut.offer(makeTransactionTask(readtxnid, true));
+        verify(m_MPpool).doWork(eq(readtxnid), any(TransactionTask.class));
+
+        // a write waits behind the limited read, and so does the read after it
+        txnId = txnId.makeNext();
+        long writetxnid = txnId.getTxnId();
+        m_dut.offer(makeTransactionTask(writetxnid, false));
+        txnId = txnId.makeNext();
+        long readtxnid2 = txnId.getTxnId();
+        m_dut.offer(makeTransactionTask(readtxnid2, true));
+        verify(m_writeQueue, never()).offer(any(TransactionTask.class));
+        verify(m_MPpool, never()).doWork(eq(readtxnid2), any(TransactionTask.class));
+
+        // once the procedure is under its limit again the limited read runs,
+        // and the write only after every read is done
+        when(m_MPpool.isProcedureAtLimit(limited)).thenReturn(false);
+        m_dut.flush(readtxnid);
+        verify(m_MPpool).doWork(eq(limitedtxnid), any(TransactionTask.class));
+        verify(m_writeQueue, never()).offer(any(TransactionTask.class));
+        m_dut.flush(limitedtxnid);
+        verify(m_writeQueue).offer(any(TransactionTask.class));
+        verify(m_MPpool, never()).doWork(eq(readtxnid2), any(TransactionTask.class));
+        m_dut.flush(writetxnid);
+        verify(m_MPpool).doWork(eq(readtxnid2), any(TransactionTask.class));
+    }
+
+    @Test
+    public void testSitePoolStats()
+    {
+        MpRoSitePoolStats stats = new MpRoSitePoolStats(0, m_dut);
+        when(m_MPpool.getBusySiteCount()).thenReturn(0);
+        when(m_MPpool.getIdleSiteCount()).thenReturn(1);
+        when(m_MPpool.getMaxSiteCount()).thenReturn(20);
+        when(m_MPpool.getBusySitesByProcedure()).thenReturn(new TreeMap<String, Integer>());
+        // the pool columns follow the common ones
+        int busy = stats.getColumnSchema().size() - 5;
+
+        // an idle pool has a single row without a procedure
+        Object[][] rows = stats.getStatsRows(false, 0L);
+        assertEquals(1, rows.length);
+        assertEquals(Arrays.asList(0, 1, 20, null, 0), Arrays.asList(rows[0]).subList(busy, busy + 5));
+
+        Map<String, Integer> procedures = new TreeMap<String, Integer>();
+        procedures.put("ReadA", 2);
+        procedures.put("ReadB", 1);
+        when(m_MPpool.getBusySiteCount()).thenReturn(3);
+        when(m_MPpool.getIdleSiteCount()).thenReturn(0);
+        when(m_MPpool.getBusySitesByProcedure()).thenReturn(procedures);
+        rows = stats.getStatsRows(false, 0L);
+        assertEquals(2, rows.length);
+        assertEquals(Arrays.asList(3, 0, 20, "ReadA", 2), Arrays.asList(rows[0]).subList(busy, busy + 5));
+        assertEquals(Arrays.asList(3, 0, 20, "ReadB", 1), Arrays.asList(rows[1]).subList(busy, busy + 5));
+    }
 }
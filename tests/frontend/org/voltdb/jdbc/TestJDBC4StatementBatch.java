@@ -0,0 +1,153 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2019 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb.jdbc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Test;
+import org.voltdb.ClientResponseImpl;
+import org.voltdb.VoltTable;
+import org.voltdb.VoltType;
+import org.voltdb.client.ClientResponse;
+import org.voltdb.client.ProcedureCallback;
+
+/**
+ * Update counts of prepared statement batches, executed against a mocked client
+ * connection which updates as many rows as the value of the statement parameter,
+ * and fails the calls whose parameter is negative.
+ */
+public class TestJDBC4StatementBatch {
+
+    // Parameter values in the order the statements were sent
+    private final List<Integer> m_sent = new ArrayList<>();
+    private int m_syncCalls = 0;
+    private int m_asyncCalls = 0;
+
+    private static ClientResponseImpl response(int value) {
+        if (value < 0) {
+            return new ClientResponseImpl(ClientResponse.GRACEFUL_FAILURE, new VoltTable[0], "failed " + value);
+        }
+        VoltTable result = new VoltTable(new VoltTable.ColumnInfo("modified_tuples", VoltType.BIGINT));
+        result.addRow(value);
+        return new ClientResponseImpl(ClientResponse.SUCCESS, new VoltTable[] { result }, null);
+    }
+
+    private JDBC4Connection connect(Integer window) {
+        JDBC4ClientConnection client = mock(JDBC4ClientConnection.class, invocation -> {
+            Object[] args = invocation.getArguments();
+            switch (invocation.getMethod().getName()) {
+            case "execute": {
+                m_syncCalls++;
+                int value = (Integer) args[args.length - 1];
+                m_sent.add(value);
+                if (value < 0) {
+                    // The client throws on a failed synchronous call
+                    throw new IOException("Failed to execute " + value);
+                }
+                return response(value);
+            }
+            case "executeAsyncWithClientTimeout": {
+                m_asyncCalls++;
+                int value = (Integer) args[args.length - 1];
+                m_sent.add(value);
+                ((ProcedureCallback) args[0]).clientCallback(response(value));
+                return true;
+            }
+            default:
+                return null;
+            }
+        });
+        Properties props = new Properties();
+        if (window != null) {
+            props.setProperty(JDBC4Connection.BATCH_WINDOW, window.toString());
+        }
+        return new JDBC4Connection(client, props);
+    }
+
+    private static PreparedStatement prepare(JDBC4Connection conn, int... values) throws Exception {
+        PreparedStatement stmt = conn.prepareStatement("UPDATE T SET A = 0 WHERE B = ?;");
+        for (int value : values) {
+            stmt.setInt(1, value);
+            stmt.addBatch();
+        }
+        return stmt;
+    }
+
+    @Test
+    public void testUpdateCounts() throws Exception {
+        PreparedStatement stmt = prepare(connect(4), 1, 2, 3, 4, 5, 6);
+        assertArrayEquals(new int[] { 1, 2, 3, 4, 5, 6 }, stmt.executeBatch());
+        assertEquals(6, m_asyncCalls);
+        assertEquals(0, m_syncCalls);
+        assertEquals(21, stmt.getUpdateCount());
+    }
+
+    @Test
+    public void testFailureInBatch() throws Exception {
+        PreparedStatement stmt = prepare(connect(2), 1, 2, -3, 4, 5);
+        try {
+            stmt.executeBatch();
+            fail("Expected the batch to fail");
+        } catch (BatchUpdateException e) {
+            // The commands after the failure were never sent and have no entry
+            assertArrayEquals(new int[] { 1, 2, Statement.EXECUTE_FAILED }, e.getUpdateCounts());
+        }
+        assertEquals(3, m_sent.size());
+    }
+
+    @Test
+    public void testFailureInSequentialBatch() throws Exception {
+        PreparedStatement stmt = prepare(connect(1), 1, 2, -3, 4, 5);
+        try {
+            stmt.executeBatch();
+            fail("Expected the batch to fail");
+        } catch (BatchUpdateException e) {
+            assertArrayEquals(new int[] { 1, 2, Statement.EXECUTE_FAILED }, e.getUpdateCounts());
+        }
+        assertEquals(3, m_sent.size());
+        assertEquals(3, m_syncCalls);
+    }
+
+    @Test
+    public void testDefaultWindowExecutesInOrder() throws Exception {
+        PreparedStatement stmt = prepare(connect(null), 3, 1, 2);
+        assertArrayEquals(new int[] { 3, 1, 2 }, stmt.executeBatch());
+        assertEquals(0, m_asyncCalls);
+        assertEquals(3, m_syncCalls);
+        assertEquals(3, (int) m_sent.get(0));
+        assertEquals(1, (int) m_sent.get(1));
+        assertEquals(2, (int) m_sent.get(2));
+    }
+}
@@ -235,6 +235,44 @@ public class TestLargeBlockManagerSuite {
         assertThat(path.toString(), endsWith("large_query_swap/" + unsignedMinLong + "___" + unsignedMinLong + ".block"));
     }
 
+    @Test
+    public void testPrefetch() throws Exception {
+        LargeBlockManager lbm = LargeBlockManager.getInstance();
+
+        int blockSize = 12 + 32; // block header and space for four longs
+        long address = 0xDEADBEEF;
+        for (long id = 1; id <= 3; ++id) {
+            ByteBuffer block = ByteBuffer.allocate(blockSize);
+            block.putLong(address);
+            block.putInt((int) id);
+            for (long i = 1000; i < 5000; i += 1000) {
+                block.putLong(i * id);
+            }
+            lbm.storeBlock(new BlockId(777, id), block);
+        }
+
+        // Loading a block reads the next one ahead
+        for (long id = 1; id <= 3; ++id) {
+            ByteBuffer loadedBlock = ByteBuffer.allocateDirect(blockSize);
+            lbm.loadBlock(new BlockId(777, id), loadedBlock);
+            assertEquals(id < 3 ? 1 : 0, lbm.getPrefetchedBlockCount());
+            loadedBlock.position(0);
+            assertEquals(address, loadedBlock.getLong());
+            assertEquals(id, loadedBlock.getInt());
+            for (long i = 1000; i < 5000; i += 1000) {
+                assertEquals(i * id, loadedBlock.getLong());
+            }
+        }
+
+        // Releasing a block read ahead drops it
+        lbm.loadBlock(new BlockId(777, 1), ByteBuffer.allocateDirect(blockSize));
+        assertEquals(1, lbm.getPrefetchedBlockCount());
+        for (long id = 1; id <= 3; ++id) {
+            lbm.releaseBlock(new BlockId(777, id));
+        }
+        assertEquals(0, lbm.getPrefetchedBlockCount());
+    }
+
     private boolean swapDirIsEmpty() throws IOException {
         int count = 0;
         try (DirectoryStream<Path> dirStream = Files.newDirectoryStream(m_largeQuerySwapPath)) {
@@ -110,6 +110,29 @@ public class TestLoadingSuite extends RegressionSuite {
         }
     }
 
+    public void testSinglePartitionLoadMispartitioned() throws Exception {
+        if (isHSQL() || getLogicalPartitionCount() < 2) {
+            return;
+        }
+
+        Client client = getClient();
+        long rowsBefore = countPartitionedRows(client);
+
+        // with more than one partition, some of these rows belong to another partition
+        VoltTable table = m_template.clone(100);
+        for (int i = 0; i < 20; i++) {
+            table.addRow(i, i, i, Integer.toString(i), (double) i);
+        }
+        try {
+            client.callProcedure("@LoadSinglepartitionTable", VoltType.valueToBytes(0),
+                    "PARTITIONED", upsertMode, table);
+            fail(); // prev stmt should throw exception
+        } catch (ProcCallException e) {
+            assertTrue(e.getMessage().contains("Mispartitioned"));
+        }
+        assertEquals(rowsBefore, countPartitionedRows(client));
+    }
+
     public void testMultiPartitionLoad() throws Exception {
         // MockExecutionEngine does not implement loadTable
         if (isHSQL()) {
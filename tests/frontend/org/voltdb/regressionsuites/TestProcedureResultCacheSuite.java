@@ -0,0 +1,92 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2019 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb.regressionsuites;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.voltdb.BackendTarget;
+import org.voltdb.client.Client;
+import org.voltdb.compiler.VoltProjectBuilder;
+
+/**
+ * Cached procedure results must go stale after writes through the default CRUD procedures,
+ * whose statements are compiled at runtime.
+ */
+public class TestProcedureResultCacheSuite extends RegressionSuite {
+
+    public TestProcedureResultCacheSuite(String name) {
+        super(name);
+    }
+
+    private long count(Client client, long id) throws Exception {
+        return client.callProcedure("CountT", id).getResults()[0].asScalarLong();
+    }
+
+    private long value(Client client, long id) throws Exception {
+        return client.callProcedure("ValueT", id).getResults()[0].asScalarLong();
+    }
+
+    public void testDefaultProcedureWrites() throws Exception {
+        Client client = getClient();
+        assertEquals(0, count(client, 1));
+
+        client.callProcedure("T.insert", 1, 10);
+        assertEquals(1, count(client, 1));
+        assertEquals(10, value(client, 1));
+
+        client.callProcedure("T.update", 1, 20, 1);
+        assertEquals(20, value(client, 1));
+
+        client.callProcedure("T.upsert", 1, 30);
+        assertEquals(30, value(client, 1));
+
+        client.callProcedure("T.delete", 1);
+        assertEquals(0, count(client, 1));
+    }
+
+    static public junit.framework.Test suite() throws Exception {
+        MultiConfigSuiteBuilder builder = new MultiConfigSuiteBuilder(TestProcedureResultCacheSuite.class);
+
+        VoltProjectBuilder project = new VoltProjectBuilder();
+        project.addLiteralSchema(
+                "CREATE TABLE T (ID BIGINT NOT NULL, V BIGINT NOT NULL, PRIMARY KEY (ID));\n" +
+                "PARTITION TABLE T ON COLUMN ID;\n" +
+                "CREATE PROCEDURE CountT PARTITION ON TABLE T COLUMN ID PARAMETER 0 AS\n" +
+                "    SELECT COUNT(*) FROM T WHERE ID = ?;\n" +
+                "CREATE PROCEDURE ValueT PARTITION ON TABLE T COLUMN ID PARAMETER 0 AS\n" +
+                "    SELECT V FROM T WHERE ID = ?;\n");
+
+        // The cache is configured when the server starts, so it needs a server of its own
+        Map<String, String> additionalEnv = new HashMap<String, String>();
+        additionalEnv.put("PROCEDURE_RESULT_CACHE", "CountT,ValueT");
+        LocalCluster config = new LocalCluster("result-cache.jar", 2, 1, 0,
+                BackendTarget.NATIVE_EE_JNI, LocalCluster.FailureState.ALL_RUNNING, false, additionalEnv);
+        config.setHasLocalServer(false);
+        assertTrue(config.compile(project));
+        builder.addServerConfig(config);
+
+        return builder;
+    }
+}
@@ -0,0 +1,86 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2019 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb.rejoin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.Test;
+import org.voltcore.messaging.MockMailbox;
+import org.voltcore.utils.DBBPool.BBContainer;
+import org.voltdb.utils.CompressionService;
+
+public class TestStreamSnapshotDataReceiver {
+
+    private static RejoinDataMessage makeDataMessage(int blockIndex, int size) throws Exception {
+        ByteBuffer block = ByteBuffer.allocate(StreamSnapshotBase.contentOffset + size);
+        block.put((byte) StreamSnapshotMessageType.DATA.ordinal());
+        block.putInt(blockIndex);
+        block.putInt(blockIndex % 3);
+        while (block.hasRemaining()) {
+            block.put((byte) blockIndex);
+        }
+        RejoinDataMessage msg = new RejoinDataMessage(42, CompressionService.compressBytes(block.array()));
+        msg.m_sourceHSId = 7;
+        return msg;
+    }
+
+    @Test
+    public void testBlocksKeepReceiveOrder() throws Exception {
+        MockMailbox mb = new MockMailbox();
+        StreamSnapshotDataReceiver receiver = new StreamSnapshotDataReceiver(mb,
+                new ConcurrentLinkedQueue<BBContainer>(), new ConcurrentLinkedQueue<BBContainer>());
+        Thread receiverThread = new Thread(receiver, "test receiver");
+        receiverThread.start();
+        try {
+            final int blockCount = 200;
+            for (int i = 0; i < blockCount; i++) {
+                // blocks of very different sizes, so later blocks can finish decompressing first
+                mb.deliver(makeDataMessage(i, (i % 2 == 0) ? 1024 * 1024 : 16));
+            }
+            for (int i = 0; i < blockCount; i++) {
+                StreamSnapshotSink.DecodedContainer decoded = receiver.take();
+                try {
+                    assertEquals(i, decoded.m_blockIndex);
+                    assertEquals(i % 3, decoded.m_tableId);
+                    assertEquals(7, decoded.m_srcHSId);
+                    assertEquals(42, decoded.m_dataTargetId);
+                    ByteBuffer b = decoded.m_container.b();
+                    assertEquals(StreamSnapshotBase.contentOffset + ((i % 2 == 0) ? 1024 * 1024 : 16), b.limit());
+                    assertEquals((byte) i, b.get(b.limit() - 1));
+                } finally {
+                    decoded.m_container.discard();
+                }
+            }
+            assertNull(receiver.poll());
+        } finally {
+            receiver.close();
+            receiverThread.interrupt();
+            receiverThread.join();
+        }
+    }
+}
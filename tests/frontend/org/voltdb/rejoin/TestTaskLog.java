@@ -257,6 +257,37 @@ public class TestTaskLog {
         assertEquals(200, count);
     }
 
+    @Test
+    public void testStats() throws IOException {
+        TxnEgo spego = TxnEgo.makeZero(0);
+        for (int i = 0; i < 5; i++) {
+            StoredProcedureInvocation invocation = new StoredProcedureInvocation();
+            invocation.setProcName("hah");
+            invocation.setParams(1l, "haha", 3.3, new byte[1024 * 128]);
+
+            Iv2InitiateTaskMessage task =
+                new Iv2InitiateTaskMessage(1, 2, Long.MIN_VALUE, spego.getTxnId(),
+                        m_uniqueIdGenerator.getNextUniqueId(), false, true, invocation, 4, 5, false);
+            task.setSpHandle(spego.getTxnId());
+            spego = spego.makeNext();
+            m_log.logTask(task);
+        }
+        assertEquals(5, m_log.getTasksLogged());
+        assertEquals(0, m_log.getTasksReplayed());
+        // every buffer but the tail has been handed to the overflow
+        assertTrue(m_log.getBytesLogged() > 1024 * 128);
+
+        int count = 0;
+        while (!m_log.isEmpty()) {
+            if (m_log.getNextMessage() != null) {
+                count++;
+            }
+        }
+        assertEquals(5, count);
+        assertEquals(5, m_log.getTasksReplayed());
+        assertTrue(m_log.getBytesLogged() > 5 * 1024 * 128);
+    }
+
     @Test
     public void testFuzz() throws Exception {
         for (int zz = 0; zz < 10; zz++) {
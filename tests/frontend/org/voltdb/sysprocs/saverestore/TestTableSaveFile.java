@@ -23,10 +23,21 @@
 
 package org.voltdb.sysprocs.saverestore;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
 import org.voltcore.TransactionIdManager;
@@ -40,6 +51,8 @@ import org.voltdb.VoltTable;
 import org.voltdb.VoltTable.ColumnInfo;
 import org.voltdb.VoltType;
 import org.voltdb.messaging.FastSerializer;
+import org.voltdb.utils.CSVTableSaveFile;
+import org.voltdb.utils.VoltTableUtil;
 
 import com.google_voltpatches.common.util.concurrent.Callables;
 
@@ -305,4 +318,92 @@ public class TestTableSaveFile extends TestCase {
             savefile.close();
         }
     }
+
+    public void testPollChunksWithListener() throws Exception {
+        System.out.println("Running testPollChunksWithListener");
+        Pair<VoltTable, File> generated = generateTestTable(100000);
+        VoltTable table = generated.getFirst();
+        File f = generated.getSecond();
+
+        FileInputStream fis = new FileInputStream(f);
+        TableSaveFile savefile = new TableSaveFile(fis, 3, null);
+        final Semaphore signals = new Semaphore(0);
+        savefile.setChunkListener(new Runnable() {
+            @Override
+            public void run() {
+                signals.release();
+            }
+        });
+        try {
+            int expectedPartitionId = 0;
+            VoltTable reaggregate_table = null;
+            while (savefile.hasMoreChunks()) {
+                final BBContainer c = savefile.pollNextChunk();
+                if (c == null) {
+                    // the listener must wake us up for every chunk and at the end of the file
+                    assertTrue(signals.tryAcquire(60, TimeUnit.SECONDS));
+                    continue;
+                }
+                TableSaveFile.Container cont = (TableSaveFile.Container)c;
+                assertEquals(expectedPartitionId, cont.partitionId);
+                expectedPartitionId++;
+                try {
+                    VoltTable test_table = PrivateVoltTableFactory.createVoltTableFromBuffer(c.b(), false);
+                    if (reaggregate_table == null) {
+                        reaggregate_table = test_table.clone(10000);
+                    }
+                    while (test_table.advanceRow()) {
+                        reaggregate_table.add(test_table);
+                    }
+                } finally {
+                    c.discard();
+                }
+            }
+            assertEquals(table, reaggregate_table);
+        } finally {
+            savefile.close();
+        }
+    }
+
+    /*
+     * Save files converted into the same stream at the same time must each write
+     * complete lines, so the output holds every line of both files intact.
+     */
+    public void testConcurrentCSVConversion() throws Exception {
+        System.out.println("Running testConcurrentCSVConversion");
+        final Pair<VoltTable, File> first = generateTestTable(100000);
+        final Pair<VoltTable, File> second = generateTestTable(100000);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ExecutorService es = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (final File f : new File[] { first.getSecond(), second.getSecond() }) {
+                futures.add(es.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        CSVTableSaveFile.convertTableSaveFile(',', null, out, f, 2);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            es.shutdown();
+        }
+
+        // Both files have the same rows, so every line appears twice
+        Map<String, Integer> expected = new HashMap<String, Integer>();
+        for (String line : new String(VoltTableUtil.toCSV(first.getFirst(), ',', null, 1024).getSecond(),
+                StandardCharsets.UTF_8).split("\n")) {
+            expected.merge(line, 2, Integer::sum);
+        }
+        Map<String, Integer> actual = new HashMap<String, Integer>();
+        for (String line : new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+            actual.merge(line, 1, Integer::sum);
+        }
+        assertEquals(expected, actual);
+    }
 }
@@ -0,0 +1,142 @@
+/* This file is part of VoltDB.
+ * Copyright (C) 2008-2019 VoltDB Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.
+ * IN NO EVENT SHALL THE AUTHORS BE LIABLE FOR ANY CLAIM, DAMAGES OR
+ * OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.voltdb.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.supercsv.io.CsvListReader;
+import org.supercsv.prefs.CsvPreference;
+import org.supercsv_voltpatches.tokenizer.Tokenizer;
+
+import com.google_voltpatches.common.io.ByteStreams;
+
+public class TestCSVFileSplitter {
+
+    private static final CsvPreference PREFERENCE = new CsvPreference.Builder('"', ',', "\n").build();
+
+    private File m_file;
+
+    @Before
+    public void setUp() throws IOException {
+        m_file = File.createTempFile("TestCSVFileSplitter", ".csv");
+    }
+
+    @After
+    public void tearDown() {
+        m_file.delete();
+    }
+
+    private void write(String content) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(m_file)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private List<List<String>> read(long start, long length) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        FileInputStream fis = new FileInputStream(m_file);
+        fis.getChannel().position(start);
+        Tokenizer tokenizer = new Tokenizer(new InputStreamReader(ByteStreams.limit(fis, length), StandardCharsets.UTF_8),
+                PREFERENCE, false, '\\', CSVLoader.DEFAULT_COLUMN_LIMIT_SIZE, 0, false);
+        try (CsvListReader reader = new CsvListReader(tokenizer, PREFERENCE)) {
+            List<String> row;
+            while ((row = reader.read()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private void checkSplits() throws Exception {
+        List<List<String>> expected = read(0, m_file.length());
+        for (int count = 1; count <= 16; count++) {
+            List<CSVFileSplitter.Split> splits = new CSVFileSplitter(m_file, '"', '\\').split(count);
+            assertTrue(splits.size() <= count);
+
+            List<List<String>> actual = new ArrayList<>();
+            long position = 0;
+            for (CSVFileSplitter.Split split : splits) {
+                assertEquals(position, split.m_start);
+                position = split.m_end;
+                actual.addAll(read(split.m_start, split.length()));
+            }
+            assertEquals(m_file.length(), position);
+            assertEquals("split into " + count, expected, actual);
+        }
+    }
+
+    @Test
+    public void testPlainLines() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append(i).append(",value ").append(i).append('\n');
+        }
+        write(sb.toString());
+        checkSplits();
+    }
+
+    @Test
+    public void testQuotedNewlines() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            sb.append(i).append(",\"multi\nline\n\"\"quoted\"\"\nvalue ").append(i).append("\"\n");
+            sb.append(i).append(",escaped \\\" quote\n");
+        }
+        write(sb.toString());
+        checkSplits();
+    }
+
+    @Test
+    public void testLineOffsets() throws Exception {
+        write("1,\"a\nb\"\n2,c\n3,\"d\ne\nf\"\n4,g\n");
+        List<CSVFileSplitter.Split> splits = new CSVFileSplitter(m_file, '"', '\\').split(8);
+        long[] expectedOffsets = { 0, 2, 3, 6 };
+        assertEquals(expectedOffsets.length, splits.size());
+        for (int i = 0; i < expectedOffsets.length; i++) {
+            assertEquals(expectedOffsets[i], splits.get(i).m_lineOffset);
+        }
+    }
+
+    @Test
+    public void testSmallFile() throws Exception {
+        write("1,a");
+        List<CSVFileSplitter.Split> splits = new CSVFileSplitter(m_file, '"', '\\').split(4);
+        assertEquals(1, splits.size());
+        assertEquals(0, splits.get(0).m_start);
+        assertEquals(3, splits.get(0).m_end);
+    }
+}
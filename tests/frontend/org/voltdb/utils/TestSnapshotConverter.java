@@ -105,6 +105,23 @@ public class TestSnapshotConverter extends SaveRestoreBase
         // this test will fail frequently with different lines before ENG-8609
         assertEquals(expectedLines,countLines(spFile));
         spFile.deleteOnExit();
+
+        // convert both tables at once, their save files are converted in parallel
+        File bothDir = new File(TMPDIR, "both");
+        assertTrue(bothDir.mkdirs() || bothDir.isDirectory());
+        bothDir.deleteOnExit();
+        String[] argsBoth = {"--table", "T_SP", "--table", "T_MP", "--type", "CSV", "--dir", TMPDIR,
+                "--outdir", bothDir.getPath(), TESTNONCE};
+        try  {
+            SnapshotConverter.main(argsBoth);
+        } catch (Exception ex) {
+            fail();
+        }
+        for (String table : new String[] {"T_SP", "T_MP"}) {
+            File bothFile = new File(bothDir, table + ".csv");
+            assertEquals(expectedLines, countLines(bothFile));
+            bothFile.deleteOnExit();
+        }
     }
 
     //